@@ -1,6 +1,7 @@
 import os
 import sys
 import json
+import hashlib
 import time
 import logging
 from concurrent.futures import ThreadPoolExecutor, as_completed
@@ -27,65 +28,174 @@ LOG_FILE = LOG_DIR / "update_stock_listing.log"
 # ============================================================
 # 2️⃣ 로깅 설정
 # ============================================================
+# 파일에는 항상 사람이 읽는 로그, stdout 은 --progress-format 에 따라 결정
 logging.basicConfig(
     level=logging.INFO,
     format="%(asctime)s - %(levelname)s - %(message)s",
     handlers=[
-        logging.FileHandler(LOG_FILE, encoding="utf-8"),
-        logging.StreamHandler(sys.stdout)
+        logging.FileHandler(LOG_FILE, encoding="utf-8")
     ]
 )
 logger = logging.getLogger(__name__)
 
-def progress(pct, message):
+# ============================================================
+# 진행 이벤트 출력 (stdout)
+# - json  : 한 줄 = JSON 이벤트 1개 (v1)
+#           {"v":1,"phase":"symbols","pct":42.5,"saved":1200,"total":2900,"level":"info","msg":"..."}
+#           pct 가 있으면 진행률, 없으면 로그
+#           종목 1건 처리 결과는 "symbol", "result"(ok/cached/empty/fail) 추가 → Java 체크포인트 기록
+#           저장된 파일 현황 "last"(마지막 일봉), "rows", "sha" 추가 → Java 매니페스트 갱신
+# - legacy: "[PROGRESS] 42.5 메시지" / "[LOG] 메시지" (구버전 호환)
+# ============================================================
+PROTOCOL_VERSION = 1
+PROGRESS_FORMAT = "json"
+LOG_LEVELS = {"info": logging.INFO, "warn": logging.WARNING, "error": logging.ERROR}
+
+def emit(phase, msg, pct=None, saved=None, total=None, level="info", symbol=None, result=None, meta=None):
+    """진행 이벤트 1줄 출력"""
+    event = {"v": PROTOCOL_VERSION, "phase": phase}
+    if symbol is not None:
+        event["symbol"] = symbol
+        event["result"] = result
+    if meta:
+        event.update(meta)
+    if pct is not None:
+        event["pct"] = round(float(pct), 1)
+    if saved is not None:
+        event["saved"] = saved
+    if total is not None:
+        event["total"] = total
+    event["level"] = level
+    event["msg"] = msg
+    print(json.dumps(event, ensure_ascii=False, separators=(",", ":")), flush=True)
+
+def progress(pct, message, phase="symbols", saved=None, total=None):
     """진행률 로그 출력"""
     logger.info(f"[PROGRESS] {float(pct):.1f} {message}")
-    sys.stdout.flush()
-
-def log(msg):
-    """일반 로그 메시지 출력"""
-    logger.info(f"[LOG] {msg}")
-    sys.stdout.flush()
+    if PROGRESS_FORMAT == "json":
+        emit(phase, message, pct=pct, saved=saved, total=total)
+    else:
+        print(f"[PROGRESS] {float(pct):.1f} {message}", flush=True)
+
+def log(msg, phase="symbols", level="info", symbol=None, result=None, meta=None):
+    """일반 로그 메시지 출력 (symbol/result/meta: 종목 1건 처리 결과)"""
+    logger.log(LOG_LEVELS.get(level, logging.INFO), f"[LOG] {msg}")
+    if PROGRESS_FORMAT == "json":
+        emit(phase, msg, level=level, symbol=symbol, result=result, meta=meta)
+    else:
+        print(f"[LOG] {msg}", flush=True)
 
 def save_listing_json(df: pd.DataFrame):
     """
     전체 KRX 종목 리스트를 JSON 파일로 저장합니다.
     """
     df.to_json(LISTING_FILE, orient="records", force_ascii=False, indent=2)
-    log(f"KRX 종목 리스트 저장 완료: {LISTING_FILE}")
+    log(f"KRX 종목 리스트 저장 완료: {LISTING_FILE}", phase="listing")
 
 # ============================================================
 # 개별 종목 데이터 저장
 # ============================================================
-def fetch_and_save_stock(symbol: str, name: str, force: bool = False):
+def file_meta(df: pd.DataFrame, file_path: Path):
+    """저장된 parquet 현황 (Java 매니페스트용): 마지막 일봉 날짜, 행 수, 파일 체크섬"""
+    h = hashlib.sha256()
+    with open(file_path, "rb") as f:
+        for chunk in iter(lambda: f.read(1 << 20), b""):
+            h.update(chunk)
+    return {
+        "last": df.index[-1].strftime("%Y-%m-%d"),
+        "rows": int(len(df)),
+        "sha": h.hexdigest()[:16],
+    }
+
+def fetch_and_save_stock(symbol: str, name: str, force: bool = False, from_date: str = None):
     """
     개별 종목 데이터를 FinanceDataReader로 조회 후 parquet로 저장합니다.
+    - force: 전체 기간 재다운로드
+    - from_date: 이 날짜부터만 받아 기존 파일 뒤에 붙임 (Java 매니페스트 기준)
+    - from_date 없음 + 기존 파일: 파일 마지막 날짜 다음 날부터 (매니페스트 없을 때 최초 1회)
+    반환: (결과 코드 ok/cached/empty/fail, 메시지, 파일 현황 dict 또는 None)
     """
     file_path = DATA_DIR / f"{symbol}.parquet"
     try:
+        old = None
+        start = None
         if file_path.exists() and not force:
-            return f"{symbol} {name} → 캐시 사용"
+            old = pd.read_parquet(file_path)
+            if old.empty:
+                old = None
+            else:
+                start = from_date or (old.index[-1] + pd.Timedelta(days=1)).strftime("%Y-%m-%d")
 
-        df = fdr.DataReader(symbol)
+        df = fdr.DataReader(symbol, start) if start else fdr.DataReader(symbol)
         if df is None or df.empty:
-            return f"{symbol} {name} → 데이터 없음"
-
-        df.to_parquet(file_path)
+            if old is not None:
+                return "cached", f"{symbol} {name} → 신규 일봉 없음", file_meta(old, file_path)
+            return "empty", f"{symbol} {name} → 데이터 없음", None
 
-        # 내부 확인용: 마지막 날짜와 OHLC 값 계산
-        try:
-            last_date = df.index[-1].strftime("%Y-%m-%d")
-            open_ = df["Open"].iloc[-1]
-            high = df["High"].iloc[-1]
-            low = df["Low"].iloc[-1]
-            close = df["Close"].iloc[-1]
-        except Exception:
-            last_date, open_, high, low, close = None, None, None, None, None
+        added = len(df)
+        if old is not None:
+            df = pd.concat([old, df])
+            df = df[~df.index.duplicated(keep="last")].sort_index()
 
-        return f"{symbol} {name} → 저장 완료"
+        df.to_parquet(file_path)
+        return "ok", f"{symbol} {name} → 저장 완료 (+{added}행)", file_meta(df, file_path)
 
     except Exception as e:
-        return f"{symbol} {name} → 실패: {e}"
+        return "fail", f"{symbol} {name} → 실패: {e}", None
+
+# ============================================================
+# 종목 목록 파일 / 병렬 다운로드
+# ============================================================
+def read_symbols_file(path):
+    """한 줄: 코드<TAB>종목명<TAB>시작일(YYYY-MM-DD) (종목명/시작일 생략 가능)"""
+    symbols, names, from_dates = [], [], []
+    with open(path, encoding="utf-8") as f:
+        for line in f:
+            line = line.rstrip("\n")
+            if not line.strip():
+                continue
+            cols = line.split("\t")
+            symbols.append(cols[0].strip())
+            names.append(cols[1].strip() if len(cols) > 1 else "")
+            from_dates.append((cols[2].strip() or None) if len(cols) > 2 else None)
+    return symbols, names, from_dates
+
+def fetch_all(symbols, names, force, workers, total_count, from_dates=None):
+    """종목 병렬 다운로드 → (completed, failed)"""
+    completed = 0
+    failed = 0
+    update_step = max(1, total_count // 50)
+    if from_dates is None:
+        from_dates = [None] * len(symbols)
+
+    with ThreadPoolExecutor(max_workers=workers) as executor:
+        futures = {
+            executor.submit(fetch_and_save_stock, sym, nm, force, fd): (idx, sym, nm)
+            for idx, (sym, nm, fd) in enumerate(zip(symbols, names, from_dates))
+        }
+
+        for future in as_completed(futures):
+            idx, sym, nm = futures[future]
+            try:
+                status, result, meta = future.result()
+                completed += 1
+                if status == "fail":
+                    failed += 1
+                log(f"{result} ({completed}/{total_count})",
+                    level="warn" if status == "fail" else "info",
+                    symbol=sym, result=status, meta=meta)
+
+                if (completed % update_step == 0) or (completed == total_count):
+                    pct = 30.0 + (completed / total_count) * 70.0
+                    progress(pct, f"종목 저장 {completed}/{total_count}",
+                             saved=completed, total=total_count)
+            except Exception as e:
+                failed += 1
+                completed += 1
+                log(f"{sym} {nm} → 예외 발생: {e}", level="error", symbol=sym, result="fail")
+                continue
+
+    return completed, failed
 
 # ============================================================
 # 메인 함수
@@ -99,8 +209,17 @@ def main():
     parser = argparse.ArgumentParser(description="KRX 종목 데이터 일괄 업데이트")
     parser.add_argument("--force", action="store_true", help="캐시 무시 (강제 재다운로드)")
     parser.add_argument("--workers", type=int, default=8, help="동시 실행 워커 수")
+    parser.add_argument("--listing-only", action="store_true",
+                        help="KRX 종목 목록(stock_listing.json)만 갱신하고 종료 (Java 샤드 실행 1단계)")
+    parser.add_argument("--symbols-file",
+                        help="이 파일의 종목만 갱신 (한 줄: 코드<TAB>종목명<TAB>시작일), 목록 다운로드 생략")
+    parser.add_argument("--progress-format", choices=["json", "legacy"], default="json",
+                        help="stdout 진행 출력 형식 (json: v1 JSON-lines, legacy: [PROGRESS]/[LOG])")
     args = parser.parse_args()
 
+    global PROGRESS_FORMAT
+    PROGRESS_FORMAT = args.progress_format
+
     start_time = time.time()
     force = args.force
     workers = max(1, args.workers)
@@ -110,13 +229,20 @@ def main():
     total_count = 0
 
     try:
-        progress(2, "환경 점검 중...")
-        log(f"실행 시작 (force={force}, workers={workers})")
+        progress(2, "환경 점검 중...", phase="init")
+        log(f"실행 시작 (force={force}, workers={workers})", phase="init")
+
+        if args.symbols_file:
+            symbols, names, from_dates = read_symbols_file(args.symbols_file)
+            total_count = len(symbols)
+            progress(30, f"지정 종목 {total_count}건 다운로드 시작", saved=0, total=total_count)
+            completed, failed = fetch_all(symbols, names, force, workers, total_count, from_dates)
+            return
 
         # ------------------------------------------------------------
         # 1️⃣ KRX 종목 목록 다운로드
         # ------------------------------------------------------------
-        progress(5, "KRX 종목 목록 다운로드 중...")
+        progress(5, "KRX 종목 목록 다운로드 중...", phase="listing")
         krx = fdr.StockListing("KRX")
 
         if krx is None or krx.empty:
@@ -152,37 +278,18 @@ def main():
         names = krx["Name"].astype(str).tolist()
         total_count = len(symbols)
 
-        progress(20, f"KRX 목록 {total_count}건 로드됨")
+        if args.listing_only:
+            progress(20, f"KRX 목록 {total_count}건 로드됨", phase="listing", saved=0, total=total_count)
+            return
+
+        progress(20, f"KRX 목록 {total_count}건 로드됨", phase="symbols", saved=0, total=total_count)
 
         if not force:
-            log("캐시 우선 모드: 기존 파일이 있으면 재활용")
-            progress(25, "캐시 확인 중...")
-
-        progress(30, "개별 종목 데이터 다운로드 시작")
-        update_step = max(1, total_count // 50)
-
-        with ThreadPoolExecutor(max_workers=workers) as executor:
-            futures = {
-                executor.submit(fetch_and_save_stock, sym, nm, force): (idx, sym, nm)
-                for idx, (sym, nm) in enumerate(zip(symbols, names))
-            }
-
-            for future in as_completed(futures):
-                idx, sym, nm = futures[future]
-                try:
-                    result = future.result()
-                    completed += 1
-                    if "실패" in result:
-                        failed += 1
-                    log(f"{result} ({completed}/{total_count})")
-
-                    if (completed % update_step == 0) or (completed == total_count):
-                        pct = 30.0 + (completed / total_count) * 70.0
-                        progress(pct, f"종목 저장 {completed}/{total_count}")
-                except Exception as e:
-                    failed += 1
-                    log(f"{sym} {nm} → 예외 발생: {e}")
-                    continue
+            log("증분 모드: 기존 파일은 마지막 날짜 이후 일봉만 추가")
+            progress(25, "캐시 확인 중...", saved=0, total=total_count)
+
+        progress(30, "개별 종목 데이터 다운로드 시작", saved=0, total=total_count)
+        completed, failed = fetch_all(symbols, names, force, workers, total_count)
 
     except KeyboardInterrupt:
         log("사용자 취소 감지")
@@ -196,9 +303,9 @@ def main():
 
     finally:
         elapsed = time.time() - start_time
-        log(f"총 소요 시간: {elapsed:.2f}초")
-        progress(100, "전체 완료")
-        log("업데이트 완료")
+        log(f"총 소요 시간: {elapsed:.2f}초", phase="done")
+        progress(100, "전체 완료", phase="done", saved=completed, total=total_count)
+        log("업데이트 완료", phase="done")
 
         print(json.dumps({
             "status": "completed",
@@ -0,0 +1,143 @@
+"""
+worker_server.py
+------------------------------------------------------------
+상주 Python 워커 (Java PythonWorkerPool 전용)
+
+- 시작 시 pandas / numpy / sklearn / matplotlib 을 미리 import → 요청마다 인터프리터 기동 비용 제거
+- stdin 한 줄 = JSON 요청 1개, stdout 한 줄 = JSON 응답 1개
+    요청: {"id": "r1", "script": "find_similar_full.py", "args": ["--base_symbol", "005930"]}
+          {"id": "h1", "op": "ping"}
+    응답: {"id": "r1", "ok": true, "exit": 0, "stdout": "...", "stderr": "", "elapsedMs": 35}
+          {"id": "h1", "pong": true, "pid": 1234, "served": 10}
+- 스크립트는 ALLOWED_SCRIPTS (분석 스크립트 2개)만 허용, 모듈은 한 번만 로드 후 main() 재호출
+  (update_stock_listing.py 같은 배치 스크립트는 워커에서 실행하지 않음)
+- 스크립트의 print 출력은 요청별로 캡처해 stdout 필드로 반환
+------------------------------------------------------------
+"""
+import contextlib
+import importlib.util
+import io
+import json
+import os
+import sys
+import time
+import traceback
+
+SCRIPT_DIR = os.path.dirname(os.path.abspath(__file__))
+
+# 프로토콜 전용 stdout (요청 처리 중에는 sys.stdout 이 캡처 버퍼로 바뀜)
+PROTO_OUT = sys.stdout
+PROTO_IN = sys.stdin
+
+if sys.platform == "win32":
+    try:
+        PROTO_OUT.reconfigure(encoding="utf-8")
+        PROTO_IN.reconfigure(encoding="utf-8")
+    except Exception:
+        pass
+
+# ============================================================
+# 1️⃣ 무거운 라이브러리 예열
+# ============================================================
+def warm_up():
+    for name in ("pandas", "numpy", "sklearn.metrics.pairwise", "matplotlib"):
+        try:
+            __import__(name)
+        except Exception:
+            pass  # 없는 라이브러리는 해당 스크립트 실행 시 오류로 보고
+    try:
+        import matplotlib
+        matplotlib.use("Agg")
+        import matplotlib.pyplot  # noqa: F401
+    except Exception:
+        pass
+
+# ============================================================
+# 2️⃣ 스크립트 모듈 캐시
+# ============================================================
+_modules = {}
+
+# 워커에서 실행 가능한 스크립트 (StockAnalysisService 가 호출하는 분석 스크립트만)
+ALLOWED_SCRIPTS = frozenset({"find_similar_full.py", "find_chart_patterns.py"})
+
+def load_script(script):
+    if script not in ALLOWED_SCRIPTS:
+        raise ValueError(f"허용되지 않은 스크립트: {script}")
+    path = os.path.join(SCRIPT_DIR, script)
+
+    mod = _modules.get(path)
+    if mod is None:
+        name = "worker_" + os.path.splitext(os.path.basename(path))[0]
+        spec = importlib.util.spec_from_file_location(name, path)
+        mod = importlib.util.module_from_spec(spec)
+        spec.loader.exec_module(mod)
+        if not hasattr(mod, "main"):
+            raise ValueError(f"main() 이 없는 스크립트: {script}")
+        _modules[path] = mod
+    return mod
+
+# ============================================================
+# 3️⃣ 요청 처리
+# ============================================================
+def run_script(req):
+    started = time.perf_counter()
+    out, err = io.StringIO(), io.StringIO()
+    exit_code = 0
+
+    try:
+        mod = load_script(str(req.get("script", "")))
+        sys.argv = [mod.__file__] + [str(a) for a in req.get("args", [])]
+        with contextlib.redirect_stdout(out), contextlib.redirect_stderr(err):
+            try:
+                mod.main()
+            except SystemExit as e:
+                exit_code = e.code if isinstance(e.code, int) else (0 if e.code is None else 1)
+    except ValueError as e:
+        exit_code = 1
+        err.write(json.dumps({"error": str(e)}, ensure_ascii=False))
+    except Exception:
+        exit_code = 1
+        err.write(json.dumps({"error": traceback.format_exc(limit=5)}, ensure_ascii=False))
+
+    return {
+        "id": req.get("id"),
+        "ok": exit_code == 0,
+        "exit": exit_code,
+        "stdout": out.getvalue(),
+        "stderr": err.getvalue(),
+        "elapsedMs": int((time.perf_counter() - started) * 1000),
+    }
+
+
+def reply(obj):
+    PROTO_OUT.write(json.dumps(obj, ensure_ascii=False) + "\n")
+    PROTO_OUT.flush()
+
+
+def main():
+    warm_up()
+    reply({"ready": True, "pid": os.getpid()})
+
+    served = 0
+    for line in PROTO_IN:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            req = json.loads(line)
+        except Exception:
+            reply({"ok": False, "exit": 1, "stderr": json.dumps({"error": "잘못된 요청 JSON"}, ensure_ascii=False)})
+            continue
+
+        if req.get("op") == "ping":
+            reply({"id": req.get("id"), "pong": True, "pid": os.getpid(), "served": served})
+            continue
+        if req.get("op") == "exit":
+            break
+
+        reply(run_script(req))
+        served += 1
+
+
+if __name__ == "__main__":
+    main()
@@ -1,10 +1,14 @@
 package com.mybaselinkV2.app.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 @Configuration
@@ -62,16 +66,32 @@ public class AsyncConfig {
     }
     */
 	
-	// 파이썬 호출 렉걸리는 현상 으로 추가
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(2);
-        executor.setQueueCapacity(0);
-        executor.setThreadNamePrefix("AsyncWorker-");
-        executor.initialize();
-        return executor;
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    // ✅ application.async.virtual-threads=true 면 프로세스 I/O 실행기만 가상 스레드
+    // (spring.threads.virtual.enabled 는 끔 → Tomcat 요청 / @Scheduled 는 플랫폼 스레드)
+    // @Async 실행기(taskExecutor)는 두지 않음: 업데이트 배치는 StockBatchJobQueue 의 BatchDispatcher 가 실행,
+    // 차트/분석 호출은 ExecutionLane 이 요청 스레드에서 시간 한도 안에 처리 → @Async 호출처가 없음
+    @Value("${application.async.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Python 프로세스 출력 읽기 / 종료 대기 전용 실행기 (StockBatchService)
+     * - 거의 모든 시간을 블로킹 I/O 로 보내는 작업 → 가상 스레드면 작업마다 1개씩 생성
+     * - 플랫폼 모드면 필요할 때 늘었다 줄어드는 데몬 스레드 풀
+     * - 배치마다 새 풀을 만들지 않고 이 하나를 재사용
+     */
+    @Bean(name = "processIoExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService processIoExecutor() {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("PyIO-", 0).factory());
+        }
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "PyIO-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
     }
-	
+
 }
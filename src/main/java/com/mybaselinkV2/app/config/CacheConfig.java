@@ -1,6 +1,8 @@
 package com.mybaselinkV2.app.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybaselinkV2.app.jwt.JwtAuthCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -12,11 +14,16 @@ import java.util.concurrent.TimeUnit;
 /**
  * ⚡ CacheConfig - Caffeine 기반 캐시 설정
  * JWT 토큰 검증 속도 향상 및 DB 부하 감소
+ * - jwtTokens / jwtUsers: 인증 필터용 (JwtAuthCache), auth-cache-seconds 짧게
+ *   → 다른 노드에서 폐기한 토큰 / 바뀐 권한이 이 시간 안에 반영됨
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${application.security.jwt.auth-cache-seconds:30}")
+    private long authCacheSeconds;
+
     @Bean
     public Caffeine<Object, Object> caffeineConfig() {
         return Caffeine.newBuilder()
@@ -26,8 +33,16 @@ public class CacheConfig {
 
     @Bean
     public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
-        CaffeineCacheManager manager = new CaffeineCacheManager("jwtTokens");
+        CaffeineCacheManager manager = new CaffeineCacheManager();
         manager.setCaffeine(caffeine);
+        manager.registerCustomCache(JwtAuthCache.TOKENS, Caffeine.newBuilder()
+                .expireAfterWrite(authCacheSeconds, TimeUnit.SECONDS)
+                .maximumSize(10000)
+                .build());
+        manager.registerCustomCache(JwtAuthCache.USERS, Caffeine.newBuilder()
+                .expireAfterWrite(authCacheSeconds, TimeUnit.SECONDS)
+                .maximumSize(1000)
+                .build());
         return manager;
     }
 }
@@ -3,6 +3,7 @@ package com.mybaselinkV2.app.controller;
 import com.mybaselinkV2.app.jwt.JwtTokenProvider;
 import com.mybaselinkV2.app.entity.LoginUserEntity;
 import com.mybaselinkV2.app.repository.LoginUserRepository;
+import com.mybaselinkV2.app.service.AuthService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -14,12 +15,15 @@ public class AuthController {
 
     private final LoginUserRepository loginUserRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final AuthService authService;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     public AuthController(LoginUserRepository loginUserRepository,
-                          JwtTokenProvider jwtTokenProvider) {
+                          JwtTokenProvider jwtTokenProvider,
+                          AuthService authService) {
         this.loginUserRepository = loginUserRepository;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.authService = authService;
     }
 
     @PostMapping("/login")
@@ -46,7 +50,11 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public String logout(HttpServletResponse response) {
+    public String logout(@CookieValue(name = "jwt", required = false) String token,
+                         HttpServletResponse response) {
+        // ✅ 쿠키만 지우면 토큰은 만료까지 유효 → 폐기 (DB + 인증 캐시)
+        if (token != null && !token.isEmpty()) authService.logout(token);
+
         Cookie cookie = new Cookie("jwt", "");
         cookie.setHttpOnly(true);
         cookie.setPath("/");
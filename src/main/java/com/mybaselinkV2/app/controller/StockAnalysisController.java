@@ -0,0 +1,104 @@
+package com.mybaselinkV2.app.controller;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mybaselinkV2.app.service.ExecutionLane;
+import com.mybaselinkV2.app.service.ExecutionLanes;
+import com.mybaselinkV2.app.service.PythonWorkerPool;
+import com.mybaselinkV2.app.service.StockAnalysisService;
+
+@RestController
+@RequestMapping("/api/stock/analysis")
+public class StockAnalysisController {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAnalysisController.class);
+    private final StockAnalysisService analysisService;
+    private final PythonWorkerPool workerPool;
+    private final ExecutionLanes lanes;
+
+    public StockAnalysisController(StockAnalysisService analysisService, PythonWorkerPool workerPool,
+                                   ExecutionLanes lanes) {
+        this.analysisService = analysisService;
+        this.workerPool = workerPool;
+        this.lanes = lanes;
+    }
+
+    /**
+     * 유사 종목: GET /api/stock/analysis/similar?baseSymbol=005930&nSimilar=5
+     * - compareSymbol 지정 시 두 종목 비교 차트 ({"image_data": base64})
+     */
+    @GetMapping("/similar")
+    public ResponseEntity<?> similar(@RequestParam String baseSymbol,
+                                     @RequestParam(required = false) String startDate,
+                                     @RequestParam(required = false) String endDate,
+                                     @RequestParam(defaultValue = "5") int nSimilar,
+                                     @RequestParam(required = false) String compareSymbol) {
+        try {
+            return ResponseEntity.ok(analysisService.findSimilar(baseSymbol, startDate, endDate, nSimilar, compareSymbol));
+        } catch (Exception e) {
+            return error("유사 종목 분석", e);
+        }
+    }
+
+    /**
+     * 차트 패턴: GET /api/stock/analysis/patterns?start=2025-01-01&end=2025-10-27&pattern=double_bottom
+     */
+    @GetMapping("/patterns")
+    public ResponseEntity<?> patterns(@RequestParam String start,
+                                      @RequestParam String end,
+                                      @RequestParam String pattern,
+                                      @RequestParam(defaultValue = "10") int topN,
+                                      @RequestParam(defaultValue = "4") int workers) {
+        try {
+            return ResponseEntity.ok(analysisService.findPatterns(start, end, pattern, topN, workers));
+        } catch (Exception e) {
+            return error("차트 패턴 분석", e);
+        }
+    }
+
+    /**
+     * 워커 풀 상태: GET /api/stock/analysis/workers
+     */
+    @GetMapping("/workers")
+    public ResponseEntity<Map<String, Object>> workers() {
+        return ResponseEntity.ok(workerPool.getStats());
+    }
+
+    /**
+     * 실행 차선 상태: GET /api/stock/analysis/lanes
+     * - interactive / analysis / batch 별 동시 실행·대기 수, 거절/시간 초과 건수, 지연 p50/p95/p99
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<String, Object>> lanes() {
+        return ResponseEntity.ok(lanes.stats());
+    }
+
+    private ResponseEntity<?> error(String what, Exception e) {
+        if (e instanceof ExecutionLane.LaneFullException) {
+            log.warn("{} 거절: {}", what, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+        if (e instanceof TimeoutException) {
+            log.warn("{} 시간 초과: {}", what, e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(Map.of("error", e.getMessage()));
+        }
+        if (e instanceof IllegalStateException) {
+            // 스크립트가 보고한 오류 (데이터 없음, 기간 오류 등)
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        log.error("{} 오류", what, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", what + " 실패: " + e.getMessage()));
+    }
+}
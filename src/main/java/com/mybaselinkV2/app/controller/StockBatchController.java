@@ -1,19 +1,24 @@
 package com.mybaselinkV2.app.controller;
 
+import java.security.Principal;
 import java.util.Map;
-import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.mybaselinkV2.app.service.StockBatchEventHub;
+import com.mybaselinkV2.app.service.StockBatchJobQueue;
 import com.mybaselinkV2.app.service.StockBatchService;
 
 @RestController
@@ -22,27 +27,42 @@ public class StockBatchController {
 
     private static final Logger log = LoggerFactory.getLogger(StockBatchController.class);
     private final StockBatchService stockBatchService;
+    private final StockBatchEventHub eventHub;
+    private final StockBatchJobQueue jobQueue;
 
-    public StockBatchController(StockBatchService stockBatchService) {
+    public StockBatchController(StockBatchService stockBatchService, StockBatchEventHub eventHub,
+                                StockBatchJobQueue jobQueue) {
         this.stockBatchService = stockBatchService;
+        this.eventHub = eventHub;
+        this.jobQueue = jobQueue;
     }
 
     /**
-     * 시작: POST /api/stock/batch/update?workers=8&force=true
+     * 시작: POST /api/stock/batch/update?workers=8&force=true&shards=4
+     * - shards: 동시 실행할 Python 프로세스 수 (0 = 자동, CPU/메모리 한도 내)
+     * - resume=true: 지난 실행의 체크포인트 기준 남은/실패 종목만 실행 (force 는 지난 실행 값 사용)
+     * - priority: 대기열 우선순위 (0~9, 클수록 먼저)
+     * - 같은 옵션으로 실행/대기 중인 작업이 있으면 그 taskId 반환 (attached=true)
+     * - 응답: {"taskId","status":"QUEUED|RUNNING","attached","position"}
      */
     @PostMapping("/update")
     public ResponseEntity<?> startBatchUpdate(@RequestParam(defaultValue = "8") int workers,
-                                              @RequestParam(defaultValue = "false") boolean force) {
-        String taskId = UUID.randomUUID().toString();
-        log.info("📊 전체 종목 업데이트 요청: {}", taskId);
+                                              @RequestParam(defaultValue = "false") boolean force,
+                                              @RequestParam(defaultValue = "0") int shards,
+                                              @RequestParam(defaultValue = "false") boolean resume,
+                                              @RequestParam(defaultValue = "5") int priority,
+                                              Principal principal) {
+        String requestedBy = principal != null ? principal.getName() : "anonymous";
+        log.info("📊 전체 종목 업데이트 요청: {}", requestedBy);
 
         try {
-            stockBatchService.startUpdate(taskId, force, workers);
-            return ResponseEntity.accepted().body(Map.of("taskId", taskId));
+            StockBatchJobQueue.Ticket ticket = jobQueue.submit(force, Math.max(1, workers), Math.max(0, shards),
+                    resume, Math.max(0, Math.min(9, priority)), requestedBy);
+            return ResponseEntity.accepted().body(ticket.toMap());
         } catch (IllegalStateException e) {
-            // ✅ 선점 중일 때
-            log.warn("[{}] 선점 실패: {}", taskId, e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+            // ✅ 대기열이 가득 찼을 때만
+            log.warn("업데이트 대기열 등록 실패: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("업데이트 시작 오류", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -51,11 +71,64 @@ public class StockBatchController {
     }
 
     /**
-     * 상태: GET /api/stock/batch/status/{taskId}
+     * 상태: GET /api/stock/batch/status/{taskId}?afterSeq=120
+     * - afterSeq 이후 새 로그만 반환
      */
     @GetMapping("/status/{taskId}")
-    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String taskId) {
-        return ResponseEntity.ok(stockBatchService.getStatusWithLogs(taskId));
+    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String taskId,
+                                                         @RequestParam(defaultValue = "0") long afterSeq) {
+        return ResponseEntity.ok(stockBatchService.getStatusWithLogs(taskId, afterSeq));
+    }
+
+    /**
+     * 실시간 스트림: GET /api/stock/batch/stream/{taskId} (text/event-stream)
+     * - event: status, data = 상태 조회와 같은 본문 (새 로그만), id = lastSeq
+     * - 재연결 시 브라우저가 보내는 Last-Event-ID 이후 로그부터 이어서 전송
+     * - 작업이 끝나면 마지막 이벤트 후 서버가 스트림 종료
+     */
+    @GetMapping(value = "/stream/{taskId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String taskId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(defaultValue = "0") long afterSeq) {
+        long from = afterSeq;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                from = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ignore) {}
+        }
+        return eventHub.subscribe(taskId, from, seq -> stockBatchService.getStatusWithLogs(taskId, seq));
+    }
+
+    /**
+     * 대기열: GET /api/stock/batch/queue
+     * - depth: 대기 작업 수, running: 실행 중 작업, queued: 실행 순서대로 (position 1 = 다음)
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<Map<String, Object>> queue() {
+        return ResponseEntity.ok(jobQueue.getQueue());
+    }
+
+    /**
+     * 작업 저장소 통계: GET /api/stock/batch/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(stockBatchService.getTaskStats());
+    }
+
+    /**
+     * 체크포인트: GET /api/stock/batch/checkpoint
+     * - {"exists":true,"done":2000,"failed":12,"force":false} → resume=true 로 이어하기 가능
+     */
+    @GetMapping("/checkpoint")
+    public ResponseEntity<?> checkpoint() {
+        try {
+            return ResponseEntity.ok(stockBatchService.getCheckpointInfo());
+        } catch (Exception e) {
+            log.error("체크포인트 조회 오류", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "체크포인트 조회 실패: " + e.getMessage()));
+        }
     }
 
     /**
@@ -63,7 +136,10 @@ public class StockBatchController {
      */
     @PostMapping("/cancel/{taskId}")
     public ResponseEntity<?> cancel(@PathVariable String taskId) {
-        stockBatchService.cancelTask(taskId);
-        return ResponseEntity.ok(Map.of("status", "CANCELLED"));
+        // 대기 중이면 대기열에서 빼고, 실행 중이면 실행 노드에 취소 요청 (CANCEL_REQUESTED → 상태/SSE 로 CANCELLED 확인)
+        return jobQueue.cancel(taskId)
+                .<ResponseEntity<?>>map(status -> ResponseEntity.ok(Map.of("status", status)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "작업을 찾을 수 없습니다: " + taskId)));
     }
 }
@@ -1,15 +1,16 @@
 package com.mybaselinkV2.app.controller;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -19,167 +20,267 @@ import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.mybaselinkV2.app.service.StockDataManifest;
 import com.mybaselinkV2.app.service.StockListService;
+import com.mybaselinkV2.app.service.StockListing;
+import com.mybaselinkV2.app.service.StockListingSnapshot;
+import com.mybaselinkV2.app.service.StockSortIndex;
 
 @RestController
 @RequestMapping("/api/stock")
 public class StockListController {
 
     private final StockListService service;
+    private final StockDataManifest manifest;
 
-    public StockListController(StockListService service) {
+    public StockListController(StockListService service, StockDataManifest manifest) {
         this.service = service;
+        this.manifest = manifest;
     }
 
     // =====================================
-    // 🔍 리스트 조회 (검색 + 페이징)
+    // 🔍 리스트 조회 (검색 + 정렬 + 페이징)
+    // - sort=Close,desc;Volume,asc (여러 컬럼은 ; 로 구분)
+    // - 스냅샷 버전 기준 ETag/Last-Modified → 변경 없으면 304
+    // - client 모드 전체 조회는 미리 직렬화된 gzip 바이트 그대로 전송
+    // - facets=true 면 현재 검색 기준 Market/Dept 건수 포함
     // =====================================
     @GetMapping("/list")
-    public Map<String, Object> getStockList(
+    public ResponseEntity<?> getStockList(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "server") String mode,
             @RequestParam(defaultValue = "true") boolean pagination,
-            @RequestParam(defaultValue = "web") String env
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(defaultValue = "web") String env,
+            ServletWebRequest webRequest
     ) {
         try {
-            List<Map<String, Object>> all = service.getStockList();
-            List<Map<String, Object>> filtered = new ArrayList<>(all);
-
-            // 검색어 필터: 환경 구분 없이 모든 필드 검색
-            if (search != null && !search.isBlank()) {
-                String s = search.toLowerCase(Locale.ROOT);
-                filtered = filtered.stream()
-                        .filter(item ->
-                                safeStr(item.get("Code")).toLowerCase().contains(s) ||
-                                safeStr(item.get("Name")).toLowerCase().contains(s) ||
-                                safeStr(item.get("Dept")).toLowerCase().contains(s) ||
-                                safeStr(item.get("Market")).toLowerCase().contains(s)
-                        )
-                        .collect(Collectors.toList());
+            // ✅ 스냅샷은 읽기 전용 공유 → 복사 없이 인덱스만 사용
+            StockListingSnapshot snapshot = service.getSnapshot();
+
+            // ✅ 조건부 GET: 같은 버전이면 본문 없이 304
+            if (webRequest.checkNotModified(snapshot.getETag(), snapshot.getSourceLastModified())) {
+                return cacheHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), snapshot).build();
             }
 
+            boolean clientMode = !pagination || "client".equalsIgnoreCase(mode);
+            boolean hasSearch = search != null && !search.isBlank();
+            List<StockSortIndex.SortKey> sortKeys = StockSortIndex.parse(sort);
+
+            // ✅ client 모드 전체 조회 → 버전당 한 번 만든 gzip 바이트
+            if (clientMode && !hasSearch && sortKeys.isEmpty() && !facets) {
+                return writeClientPayload(snapshot, webRequest);
+            }
+
+            // 검색어 필터: Code/Name/Dept/Market 부분일치 + 초성 검색 (null = 전체)
+            int[] matches = hasSearch ? snapshot.search(search) : null;
+            int totalElements = matches == null ? snapshot.size() : matches.length;
+
             Map<String, Object> result = new HashMap<>();
+            if (facets) {
+                result.put("facets", snapshot.facets(matches));
+            }
 
             // ✅ 클라이언트 모드 or 페이징 비활성화
-            if (!pagination || "client".equalsIgnoreCase(mode)) {
-                result.put("content", filtered);
+            if (clientMode) {
+                result.put("content", snapshot.select(snapshot.page(sortKeys, matches, 0, totalElements)));
                 result.put("page", 0);
                 result.put("totalPages", 1);
-                result.put("totalElements", filtered.size());
-                return result;
+                result.put("totalElements", totalElements);
+                return cacheHeaders(ResponseEntity.ok(), snapshot).body(result);
             }
 
-            // ✅ 서버모드 페이징
-            int totalElements = filtered.size();
+            // ✅ 서버모드 페이징 (정렬 순열에서 해당 페이지 조각만)
             int totalPages = (int) Math.ceil((double) totalElements / size);
-            int start = page * size;
-            int end = Math.min(start + size, totalElements);
-            List<Map<String, Object>> paged = filtered.subList(Math.min(start, end), end);
+            int start = Math.max(0, page) * size;
+            List<StockListing> paged = snapshot.select(snapshot.page(sortKeys, matches, start, size));
 
             result.put("content", paged);
             result.put("page", page);
             result.put("totalPages", totalPages);
             result.put("totalElements", totalElements);
 
-            return result;
+            return cacheHeaders(ResponseEntity.ok(), snapshot).body(result);
 
         } catch (Exception e) {
             e.printStackTrace();
-            return Map.of("error", "데이터 조회 실패: " + e.getMessage());
+            return ResponseEntity.ok(Map.of("error", "데이터 조회 실패: " + e.getMessage()));
         }
     }
 
-    // =====================================
-    // 📊 엑셀(XLSX) 다운로드
-    // =====================================
-    @GetMapping("/excel")
-    public ResponseEntity<byte[]> downloadExcel(@RequestParam(required = false) String search) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("주식리스트");
+    private ResponseEntity<?> writeClientPayload(StockListingSnapshot snapshot, ServletWebRequest webRequest) throws IOException {
+        byte[] gzip = snapshot.getClientPayloadGzip();
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
 
-            // 헤더 스타일
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setAlignment(HorizontalAlignment.CENTER);
+        ResponseEntity.BodyBuilder builder = cacheHeaders(ResponseEntity.ok(), snapshot)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-            // 헤더 작성
-            String[] headers = {"종목코드", "회사명", "시장", "업종", "종가", "시가", "고가", "저가", "거래량", "기준일"};
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(gzip.length)
+                    .body(gzip);
+        }
+        // gzip 미지원 클라이언트 (드묾) → 풀어서 전송
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return builder.body(in.readAllBytes());
+        }
+    }
+
+    /**
+     * Accept-Encoding 에 gzip 허용 여부 (q 값 반영)
+     * - "gzip;q=0" → 거부, gzip 이 없으면 "*" 의 q 값을 따름
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return false;
+        Double gzipQ = null, anyQ = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0; // 잘못된 q → 허용하지 않은 것으로
+                    }
+                }
             }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            else if (coding.equals("*")) anyQ = q;
+        }
+        if (gzipQ != null) return gzipQ > 0;
+        return anyQ != null && anyQ > 0;
+    }
 
-            // 데이터 필터링
-            List<Map<String, Object>> filtered = service.getStockList().stream()
-                    .filter(item -> search == null || search.isBlank()
-                            || safeStr(item.get("Name")).contains(search)
-                            || safeStr(item.get("Code")).contains(search)
-                            || safeStr(item.get("Dept")).contains(search))
-                    .collect(Collectors.toList());
+    private static ResponseEntity.BodyBuilder cacheHeaders(ResponseEntity.BodyBuilder builder, StockListingSnapshot snapshot) {
+        return builder
+                .eTag(snapshot.getETag())
+                .lastModified(snapshot.getSourceLastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
 
-            // 데이터 행 작성
-            int rowIdx = 1;
-            for (Map<String, Object> item : filtered) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(safeStr(item.get("Code")));
-                row.createCell(1).setCellValue(safeStr(item.get("Name")));
-                row.createCell(2).setCellValue(safeStr(item.get("Market")));
-                row.createCell(3).setCellValue(safeStr(item.get("Dept")));
-                row.createCell(4).setCellValue(safeStr(item.get("Close")));
-                row.createCell(5).setCellValue(safeStr(item.get("Open")));
-                row.createCell(6).setCellValue(safeStr(item.get("High")));
-                row.createCell(7).setCellValue(safeStr(item.get("Low")));
-                row.createCell(8).setCellValue(safeStr(item.get("Volume")));
-                row.createCell(9).setCellValue(safeStr(item.get("Date")));
-            }
+    // =====================================
+    // 📒 데이터 신선도 (매니페스트 기준, parquet 파일은 열지 않음)
+    // - expectedDate: 지금 받을 수 있는 마지막 일봉 날짜 (KRX 거래일 기준)
+    // - staleSymbols: 갱신이 필요한 종목 (오래된 순, limit 건)
+    // =====================================
+    @GetMapping("/freshness")
+    public ResponseEntity<?> freshness(@RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(manifest.freshness(Math.max(0, limit)));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().body(Map.of("error", "신선도 조회 실패: " + e.getMessage()));
+        }
+    }
 
-            // 자동 열 너비 조정
-            for (int i = 0; i < headers.length; i++) sheet.autoSizeColumn(i);
+    // =====================================
+    // 📊 엑셀(XLSX) 다운로드 (SXSSF 스트리밍)
+    // - 메모리에는 EXCEL_ROW_WINDOW 행만 유지, 나머지는 압축 임시파일로 flush
+    // - autoSizeColumn 대신 고정 열 너비
+    // - ByteArrayOutputStream 없이 응답 스트림에 바로 기록
+    // =====================================
+    private static final int EXCEL_ROW_WINDOW = 200;
+    private static final String[] EXCEL_HEADERS = {"종목코드", "회사명", "시장", "업종", "종가", "시가", "고가", "저가", "거래량", "기준일"};
+    private static final int[] EXCEL_COLUMN_WIDTHS = {10, 28, 14, 24, 12, 12, 12, 12, 16, 12}; // 문자 수 기준
 
-            // 워크북 → 바이트 변환
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            workbook.write(out);
-            byte[] bytes = out.toByteArray();
+    @GetMapping("/excel")
+    public ResponseEntity<StreamingResponseBody> downloadExcel(@RequestParam(required = false) String search) {
+        try {
+            // 데이터 필터링 (리스트 조회와 같은 검색 인덱스)
+            StockListingSnapshot snapshot = service.getSnapshot();
+            List<StockListing> filtered = (search == null || search.isBlank())
+                    ? snapshot.getRows()
+                    : snapshot.select(snapshot.search(search));
 
             // 파일명 인코딩
             String filename = "주식리스트_" + LocalDate.now() + ".xlsx";
             String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8).replaceAll("\\+", "%20");
             String contentDisposition = "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encodedFilename;
 
+            StreamingResponseBody body = out -> writeExcel(filtered, out);
+
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
                     .header(HttpHeaders.CONTENT_TYPE,
                             "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet; charset=UTF-8")
-                    .body(bytes);
+                    .body(body);
 
         } catch (Exception e) {
             e.printStackTrace();
+            byte[] msg = ("엑셀 생성 실패: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
             return ResponseEntity.internalServerError()
                     .header(HttpHeaders.CONTENT_TYPE, "text/plain; charset=UTF-8")
-                    .body(("엑셀 생성 실패: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+                    .body(out -> out.write(msg));
         }
     }
 
-    // =====================================
-    // 🔹 유틸: null 안전 문자열 변환
-    // =====================================
-    private String safeStr(Object obj) {
-        return obj != null ? obj.toString() : "";
+    private void writeExcel(List<StockListing> rows, OutputStream out) throws IOException {
+        // 헤더를 먼저 내려보내 다운로드가 바로 시작되도록
+        out.flush();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("주식리스트");
+
+            // 헤더 스타일
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            headerStyle.setAlignment(HorizontalAlignment.CENTER);
+
+            // 헤더 작성 + 고정 열 너비
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < EXCEL_HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(EXCEL_HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, EXCEL_COLUMN_WIDTHS[i] * 256);
+            }
+
+            // 데이터 행 작성 (숫자 컬럼은 숫자 셀)
+            int rowIdx = 1;
+            for (StockListing item : rows) {
+                Row row = sheet.createRow(rowIdx++);
+                row.createCell(0).setCellValue(item.code());
+                row.createCell(1).setCellValue(item.name());
+                row.createCell(2).setCellValue(item.market());
+                row.createCell(3).setCellValue(item.dept());
+                row.createCell(4).setCellValue(item.close());
+                row.createCell(5).setCellValue(item.open());
+                row.createCell(6).setCellValue(item.high());
+                row.createCell(7).setCellValue(item.low());
+                row.createCell(8).setCellValue(item.volume());
+                row.createCell(9).setCellValue(item.date());
+            }
+
+            workbook.write(out);
+        } finally {
+            workbook.dispose(); // 임시파일 삭제
+            workbook.close();
+        }
     }
 }
\ No newline at end of file
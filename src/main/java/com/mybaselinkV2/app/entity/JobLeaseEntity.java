@@ -0,0 +1,65 @@
+package com.mybaselinkV2.app.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * 노드 간 작업 리스 (job_leases)
+ * - name 1개 = 클러스터 전체에서 동시에 1개 노드만 보유
+ * - expiresAt 이 지나면 다른 노드가 가져감 (보유 노드 장애 시 자동 인계)
+ * - fencingToken: 가져갈 때마다 1 증가 → 이전 보유자의 늦은 쓰기를 걸러냄
+ * - Postgres 테이블: db/migration/job_leases.sql (배포 전 1회 실행)
+ */
+@Entity
+@Table(name = "job_leases")
+public class JobLeaseEntity {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(nullable = false)
+    private long fencingToken;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant acquiredAt;
+
+    @Column(nullable = false)
+    private Instant renewedAt;
+
+    public JobLeaseEntity() {}
+
+    public JobLeaseEntity(String name, String owner, long fencingToken, Instant now, Instant expiresAt) {
+        this.name = name;
+        this.owner = owner;
+        this.fencingToken = fencingToken;
+        this.acquiredAt = now;
+        this.renewedAt = now;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getter/Setter
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public long getFencingToken() { return fencingToken; }
+    public void setFencingToken(long fencingToken) { this.fencingToken = fencingToken; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+
+    public Instant getAcquiredAt() { return acquiredAt; }
+    public void setAcquiredAt(Instant acquiredAt) { this.acquiredAt = acquiredAt; }
+
+    public Instant getRenewedAt() { return renewedAt; }
+    public void setRenewedAt(Instant renewedAt) { this.renewedAt = renewedAt; }
+}
@@ -1,19 +1,30 @@
 package com.mybaselinkV2.app.entity;
 
+import com.mybaselinkV2.app.jwt.TokenHashes;
 import jakarta.persistence.*;
 import java.time.Instant;
 
+/**
+ * 발급 토큰 (jwt_tokens)
+ * - 조회 키는 tokenHash (토큰 SHA-256, 32바이트 unique) → 토큰 길이와 무관한 인덱스 크기
+ * - token 원문은 조회용 인덱스 없이 보관만 (기존 행 이관: db/migration/jwt_tokens_token_hash.sql)
+ */
 @Entity
-@Table(name = "jwt_tokens")
+@Table(name = "jwt_tokens",
+       indexes = @Index(name = "ux_jwt_tokens_token_hash", columnList = "token_hash", unique = true))
 public class JwtTokenEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 500, unique = true)
+    @Column(nullable = false, length = 500)
     private String token;
 
+    // 이관 전 기존 행은 null → 시작 시 JwtTokenCleanupScheduler 가 채움
+    @Column(name = "token_hash", length = 32)
+    private byte[] tokenHash;
+
     @Column(nullable = false, length = 50)
     private String username;
 
@@ -29,7 +40,7 @@ public class JwtTokenEntity {
     public JwtTokenEntity() {}
 
     public JwtTokenEntity(String token, String username, Instant expiresAt) {
-        this.token = token;
+        setToken(token);
         this.username = username;
         this.expiresAt = expiresAt;
     }
@@ -39,7 +50,19 @@ public class JwtTokenEntity {
     public void setId(Long id) { this.id = id; }
 
     public String getToken() { return token; }
-    public void setToken(String token) { this.token = token; }
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenHash = token != null ? TokenHashes.sha256(token) : null;
+    }
+
+    public byte[] getTokenHash() { return tokenHash; }
+
+    /** 저장 직전 해시가 비어 있으면 채움 (기존 행 이관용) */
+    @PrePersist
+    @PreUpdate
+    void fillTokenHash() {
+        if (tokenHash == null && token != null) tokenHash = TokenHashes.sha256(token);
+    }
 
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
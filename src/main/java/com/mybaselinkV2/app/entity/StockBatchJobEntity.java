@@ -0,0 +1,135 @@
+package com.mybaselinkV2.app.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import java.time.Instant;
+
+/**
+ * 종목 일괄 업데이트 작업 큐 (stock_batch_jobs)
+ * - status: QUEUED → RUNNING → COMPLETED / FAILED / CANCELLED
+ * - 같은 옵션의 대기 작업에는 새 요청을 합침 (requesters 증가)
+ * - queueKey: 대기(QUEUED) 중일 때만 옵션 키, 그 외 null → 유니크 인덱스로 노드가 달라도 같은 옵션 대기 작업은 1건
+ * - cancelRequested: 실행 중 작업 취소 요청 (어느 노드에서 받든 기록 → 실행 노드가 확인 후 종료)
+ * - Postgres 테이블: db/migration/stock_batch_jobs.sql (배포 전 1회 실행)
+ */
+@Entity
+@DynamicUpdate // 바뀐 컬럼만 UPDATE → 다른 노드가 기록한 cancelRequested 를 덮어쓰지 않음
+@Table(name = "stock_batch_jobs", indexes = {
+        @Index(name = "idx_stock_batch_jobs_status", columnList = "status"),
+        @Index(name = "idx_stock_batch_jobs_created", columnList = "createdAt"),
+        @Index(name = "ux_stock_batch_jobs_queue_key", columnList = "queueKey", unique = true)})
+public class StockBatchJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36, unique = true)
+    private String taskId;
+
+    @Column(nullable = false, length = 20)
+    private String status = "QUEUED";
+
+    @Column(nullable = false)
+    private boolean force;
+
+    @Column(nullable = false)
+    private int workers;
+
+    @Column(nullable = false)
+    private int shards;
+
+    @Column(nullable = false)
+    private boolean resume;
+
+    @Column(nullable = false)
+    private int priority;
+
+    @Column(nullable = false, length = 50)
+    private String requestedBy;
+
+    @Column(nullable = false)
+    private int requesters = 1;
+
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    @Column(nullable = false)
+    private boolean cancelRequested;
+
+    @Column(length = 40)
+    private String queueKey;
+
+    public StockBatchJobEntity() {}
+
+    public StockBatchJobEntity(String taskId, boolean force, int workers, int shards, boolean resume,
+                               int priority, String requestedBy) {
+        this.taskId = taskId;
+        this.force = force;
+        this.workers = workers;
+        this.shards = shards;
+        this.resume = resume;
+        this.priority = priority;
+        this.requestedBy = requestedBy;
+    }
+
+    /** 대기 작업 합침 키 (같은 키 = 같은 실행 결과) */
+    public static String queueKey(boolean force, int workers, int shards, boolean resume) {
+        return (force ? "F" : "-") + ":" + workers + ":" + shards + ":" + (resume ? "R" : "-");
+    }
+
+    /** 같은 실행 결과를 내는 요청인지 (합칠 수 있는지) */
+    public boolean sameOptions(boolean force, int workers, int shards, boolean resume) {
+        return this.force == force && this.workers == workers && this.shards == shards && this.resume == resume;
+    }
+
+    // Getter/Setter
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public boolean isForce() { return force; }
+    public void setForce(boolean force) { this.force = force; }
+
+    public int getWorkers() { return workers; }
+    public void setWorkers(int workers) { this.workers = workers; }
+
+    public int getShards() { return shards; }
+    public void setShards(int shards) { this.shards = shards; }
+
+    public boolean isResume() { return resume; }
+    public void setResume(boolean resume) { this.resume = resume; }
+
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public String getRequestedBy() { return requestedBy; }
+    public void setRequestedBy(String requestedBy) { this.requestedBy = requestedBy; }
+
+    public int getRequesters() { return requesters; }
+    public void setRequesters(int requesters) { this.requesters = requesters; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public String getQueueKey() { return queueKey; }
+    public void setQueueKey(String queueKey) { this.queueKey = queueKey; }
+}
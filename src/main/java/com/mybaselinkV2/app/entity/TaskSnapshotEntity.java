@@ -0,0 +1,84 @@
+package com.mybaselinkV2.app.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * 노드 간 공유 작업 상태 (task_snapshots)
+ * - 작업을 가진 노드가 주기적으로 덮어씀 (상태 + 결과 + 최근 로그 꼬리)
+ * - 다른 노드는 로컬에 상태가 없거나 더 오래됐을 때 이 행으로 응답
+ * - statusUpdatedAt: 상태가 바뀐 시각 → 오래된 상태로 새 상태를 덮어쓰지 않도록 비교
+ * - Postgres 테이블: db/migration/task_snapshots.sql (배포 전 1회 실행)
+ */
+@Entity
+@Table(name = "task_snapshots", indexes = @Index(name = "idx_task_snapshots_written", columnList = "writtenAt"))
+public class TaskSnapshotEntity {
+
+    @Id
+    @Column(length = 36)
+    private String taskId;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(columnDefinition = "text") // Postgres @Lob(String) → oid 대신 일반 텍스트
+    private String resultJson;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column(columnDefinition = "text")
+    private String logsJson;
+
+    @Column(nullable = false)
+    private long lastSeq;
+
+    @Column(nullable = false, length = 100)
+    private String node;
+
+    @Column(nullable = false)
+    private Instant statusUpdatedAt;
+
+    @Column(nullable = false)
+    private Instant writtenAt;
+
+    @Column(nullable = false)
+    private boolean finished;
+
+    public TaskSnapshotEntity() {}
+
+    public TaskSnapshotEntity(String taskId) {
+        this.taskId = taskId;
+    }
+
+    // Getter/Setter
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getResultJson() { return resultJson; }
+    public void setResultJson(String resultJson) { this.resultJson = resultJson; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getLogsJson() { return logsJson; }
+    public void setLogsJson(String logsJson) { this.logsJson = logsJson; }
+
+    public long getLastSeq() { return lastSeq; }
+    public void setLastSeq(long lastSeq) { this.lastSeq = lastSeq; }
+
+    public String getNode() { return node; }
+    public void setNode(String node) { this.node = node; }
+
+    public Instant getStatusUpdatedAt() { return statusUpdatedAt; }
+    public void setStatusUpdatedAt(Instant statusUpdatedAt) { this.statusUpdatedAt = statusUpdatedAt; }
+
+    public Instant getWrittenAt() { return writtenAt; }
+    public void setWrittenAt(Instant writtenAt) { this.writtenAt = writtenAt; }
+
+    public boolean isFinished() { return finished; }
+    public void setFinished(boolean finished) { this.finished = finished; }
+}
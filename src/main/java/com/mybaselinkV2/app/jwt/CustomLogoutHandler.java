@@ -1,36 +1,40 @@
 package com.mybaselinkV2.app.jwt;
 
-import com.mybaselinkV2.app.repository.JwtTokenRepository;
+import com.mybaselinkV2.app.service.AuthService;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
-
 @Component
 public class CustomLogoutHandler implements LogoutHandler {
 
-    private final JwtTokenRepository jwtTokenRepository;
+    private final AuthService authService;
 
-    public CustomLogoutHandler(JwtTokenRepository jwtTokenRepository) {
-        this.jwtTokenRepository = jwtTokenRepository;
+    public CustomLogoutHandler(AuthService authService) {
+        this.authService = authService;
     }
 
+    /** 토큰 폐기 (DB + JwtAuthCache), 헤더 → 쿠키 순서로 토큰 확인 */
     @Override
     public void logout(HttpServletRequest request,
                        HttpServletResponse response,
                        Authentication authentication) {
 
+        String token = null;
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            Optional.ofNullable(jwtTokenRepository.findByToken(token))
-                    .ifPresent(opt -> opt.ifPresent(t -> {
-                        t.setRevoked(true);
-                        jwtTokenRepository.save(t);
-                    }));
+            token = authHeader.substring(7);
+        } else if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("jwt".equals(cookie.getName())) token = cookie.getValue();
+            }
+        }
+
+        if (token != null && !token.isEmpty()) {
+            authService.logout(token);
         }
     }
 }
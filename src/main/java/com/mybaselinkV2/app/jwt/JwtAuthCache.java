@@ -0,0 +1,107 @@
+package com.mybaselinkV2.app.jwt;
+
+import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.repository.JwtTokenRepository;
+import com.mybaselinkV2.app.service.CustomUserDetailsService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * ⚡ JwtAuthCache - 요청마다 하던 토큰/사용자 DB 조회 캐시
+ * --------------------------------------------------------
+ * ✅ 토큰 상태 (CacheConfig "jwtTokens")
+ *   - 키: 토큰 SHA-256 (원문 토큰을 메모리 키로 들고 있지 않음)
+ *   - 값: 사용자 / 만료 / 폐기 여부, DB 에 없는 토큰도 NOT_FOUND 로 캐시 (위조·삭제 토큰 반복 조회 차단)
+ *   - 만료는 조회 시점에 다시 비교 → 캐시 기간 중 만료돼도 통과하지 않음
+ *   - 로그아웃/폐기 시 revoked 상태로 바로 덮어씀 (이 노드 즉시, 다른 노드는 캐시 기간 후 반영)
+ * ✅ 사용자 권한 (CacheConfig "jwtUsers")
+ *   - 필터용 UserDetails (비밀번호 제거본), 로그인 인증은 CustomUserDetailsService 를 그대로 사용
+ * --------------------------------------------------------
+ */
+@Component
+public class JwtAuthCache {
+
+    public static final String TOKENS = "jwtTokens";
+    public static final String USERS = "jwtUsers";
+
+    /** 토큰 1개 상태 (username == null → DB 에 없음) */
+    public record TokenState(String username, Instant expiresAt, boolean revoked) {
+        static final TokenState NOT_FOUND = new TokenState(null, Instant.EPOCH, true);
+
+        public boolean isValid() {
+            return username != null && !revoked && expiresAt.isAfter(Instant.now());
+        }
+    }
+
+    private final JwtTokenRepository jwtTokenRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final Cache tokens;
+    private final Cache users;
+
+    public JwtAuthCache(JwtTokenRepository jwtTokenRepository, CustomUserDetailsService userDetailsService,
+                        CacheManager cacheManager) {
+        this.jwtTokenRepository = jwtTokenRepository;
+        this.userDetailsService = userDetailsService;
+        this.tokens = cacheManager.getCache(TOKENS);
+        this.users = cacheManager.getCache(USERS);
+    }
+
+    /** 토큰 상태 (캐시 → 없으면 DB 1회) */
+    public TokenState state(String token) {
+        return tokens.get(hash(token), () -> jwtTokenRepository.findByToken(token)
+                .map(JwtAuthCache::toState)
+                .orElse(TokenState.NOT_FOUND));
+    }
+
+    public boolean isValid(String token) {
+        return state(token).isValid();
+    }
+
+    /** 저장 직후 상태 등록 (첫 요청도 DB 조회 없음) */
+    public void put(JwtTokenEntity entity) {
+        tokens.put(hash(entity.getToken()), toState(entity));
+    }
+
+    /** 로그아웃/폐기: DB 반영과 함께 호출 → 이 노드는 즉시 거부 */
+    public void revoke(String token, Optional<JwtTokenEntity> entity) {
+        tokens.put(hash(token), entity
+                .map(e -> new TokenState(e.getUsername(), e.getExpiresAt(), true))
+                .orElse(TokenState.NOT_FOUND));
+    }
+
+    /**
+     * 필터용 사용자 (권한 포함, 비밀번호 제거)
+     * @throws UsernameNotFoundException 사용자가 없으면 (캐시하지 않음)
+     */
+    public UserDetails user(String username) {
+        try {
+            return users.get(username, () -> {
+                UserDetails u = userDetailsService.loadUserByUsername(username);
+                return User.withUserDetails(u).password("").build();
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof UsernameNotFoundException notFound) throw notFound;
+            throw e;
+        }
+    }
+
+    /** 권한 변경 시 호출 */
+    public void evictUser(String username) {
+        users.evict(username);
+    }
+
+    private static TokenState toState(JwtTokenEntity e) {
+        return new TokenState(e.getUsername(), e.getExpiresAt(), e.isRevoked());
+    }
+
+    private static String hash(String token) {
+        return TokenHashes.sha256Hex(token);
+    }
+}
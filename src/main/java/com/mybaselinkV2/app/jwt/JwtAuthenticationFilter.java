@@ -1,7 +1,5 @@
 package com.mybaselinkV2.app.jwt;
 
-import com.mybaselinkV2.app.service.AuthService;
-import com.mybaselinkV2.app.service.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,27 +8,31 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * JWT 인증 필터
+ * - 토큰 상태 / 사용자 권한은 JwtAuthCache 경유 → 캐시가 살아 있으면 요청당 DB 조회 없음
+ * - 서명 검증/파싱은 요청당 1번 (JwtTokenProvider.parse), 결과는 JwtClaims 요청 속성
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final CustomUserDetailsService userDetailsService;
-    private final AuthService authService;
+    private final JwtAuthCache authCache;
 
     public JwtAuthenticationFilter(
             JwtTokenProvider jwtTokenProvider,
-            CustomUserDetailsService userDetailsService,
-            AuthService authService
+            JwtAuthCache authCache
     ) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.userDetailsService = userDetailsService;
-        this.authService = authService;
+        this.authCache = authCache;
     }
 
     @Override
@@ -42,19 +44,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = resolveToken(request);
 
-        if (token != null &&
-                jwtTokenProvider.validateToken(token) &&
-                authService.isTokenValid(token)) {
+        // 서명 검증은 1번만, 내용(JwtClaims)은 요청 속성으로 하위 코드에 전달
+        Optional<JwtClaims> claims = token != null ? jwtTokenProvider.parse(token) : Optional.empty();
 
-            String username = jwtTokenProvider.getUsername(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (claims.isPresent() && authCache.isValid(token)) {
+            try {
+                UserDetails userDetails = authCache.user(claims.get().subject());
 
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities()
+                        );
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims.get());
+            } catch (UsernameNotFoundException e) {
+                // 토큰 발급 후 삭제된 사용자 → 인증 안 함
+            }
         }
 
         filterChain.doFilter(request, response);
@@ -0,0 +1,23 @@
+package com.mybaselinkV2.app.jwt;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 검증을 마친 토큰 내용 (필터에서 1번 파싱 → 요청 속성으로 전달)
+ * - 하위 코드는 토큰을 다시 파싱하지 않고 JwtClaims.from(request) 사용
+ *
+ * @param jti 토큰 ID (이전 버전 토큰은 null)
+ */
+public record JwtClaims(String subject, List<String> roles, Instant issuedAt, Instant expiresAt, String jti) {
+
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+
+    /** 필터가 인증한 요청이면 토큰 내용, 아니면 null */
+    public static JwtClaims from(HttpServletRequest request) {
+        Object v = request.getAttribute(REQUEST_ATTRIBUTE);
+        return v instanceof JwtClaims c ? c : null;
+    }
+}
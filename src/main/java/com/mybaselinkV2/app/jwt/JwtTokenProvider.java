@@ -4,29 +4,42 @@ import com.mybaselinkV2.app.entity.JwtTokenEntity;
 import com.mybaselinkV2.app.repository.JwtTokenRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * JWT 발급 / 검증
+ * - 서명 키(SecretKey)와 파서(JwtParser, 불변 → 스레드 안전)는 시작 시 1번만 생성
+ * - parse(token): 서명 검증 + 내용 추출을 한 번에 → 요청당 파싱 1번
+ *   (사용자/권한은 JwtClaims 로 꺼냄, 저장 상태(폐기 여부)는 JwtAuthCache 에서 확인)
+ */
 @Component
 public class JwtTokenProvider {
 
     private final JwtTokenRepository jwtTokenRepository;
-
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    private final JwtAuthCache authCache;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
     @Value("${application.security.jwt.expiration}")
     private long accessExpirationMillis;
 
-    public JwtTokenProvider(JwtTokenRepository jwtTokenRepository) {
+    public JwtTokenProvider(JwtTokenRepository jwtTokenRepository, JwtAuthCache authCache,
+                            @Value("${application.security.jwt.secret-key}") String secretKey) {
         this.jwtTokenRepository = jwtTokenRepository;
+        this.authCache = authCache;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public long getAccessExpirationMillis() {
@@ -41,53 +54,43 @@ public class JwtTokenProvider {
                 : roles.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
 
         String token = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .claim("roles", roleList)
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiresAt))
-                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes()))
+                .signWith(signingKey)
                 .compact();
 
         JwtTokenEntity entity = new JwtTokenEntity(token, username, expiresAt);
         entity.setCreatedAt(now);
         jwtTokenRepository.save(entity);
+        authCache.put(entity);
 
         return token;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * 서명/만료 검증 + 내용 추출 (요청당 1번)
+     * @return 위조/만료/형식 오류면 빈 Optional
+     */
+    public Optional<JwtClaims> parse(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey.getBytes())
-                    .build()
-                    .parseClaimsJws(token);
-
-            Optional<JwtTokenEntity> entity = jwtTokenRepository.findByToken(token);
-            return entity.isPresent() && !entity.get().isRevoked()
-                    && entity.get().getExpiresAt().isAfter(Instant.now());
-
+            Claims c = parser.parseClaimsJws(token).getBody();
+            return Optional.of(new JwtClaims(c.getSubject(), roles(c),
+                    c.getIssuedAt() != null ? c.getIssuedAt().toInstant() : null,
+                    c.getExpiration() != null ? c.getExpiration().toInstant() : null,
+                    c.getId()));
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
-    public String getUsername(String token) {
-        return getClaims(token).getSubject();
-    }
-
-    public List<String> getRoles(String token) {
-        Object roles = getClaims(token).get("roles");
+    private static List<String> roles(Claims claims) {
+        Object roles = claims.get("roles");
         if (roles instanceof List<?> list) {
             return list.stream().map(Object::toString).collect(Collectors.toList());
         }
         return Collections.emptyList();
     }
-
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey.getBytes())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
 }
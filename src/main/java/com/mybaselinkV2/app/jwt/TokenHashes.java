@@ -0,0 +1,28 @@
+package com.mybaselinkV2.app.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 토큰 고정 길이 키 (SHA-256, 32바이트)
+ * - jwt_tokens.token_hash 저장/조회, JwtAuthCache 키
+ * - 토큰 길이와 무관하게 인덱스/비교 크기 일정
+ */
+public final class TokenHashes {
+
+    private TokenHashes() {}
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 을 사용할 수 없습니다.", e);
+        }
+    }
+
+    public static String sha256Hex(String token) {
+        return HexFormat.of().formatHex(sha256(token));
+    }
+}
@@ -0,0 +1,45 @@
+package com.mybaselinkV2.app.repository;
+
+import com.mybaselinkV2.app.entity.JobLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * 리스 변경은 모두 조건부 UPDATE 1문장 → 행 잠금 안에서 판정 (영향 행 수 1 = 성공)
+ * - 트랜잭션은 LeaseService 가 REQUIRES_NEW 로 감쌈 (호출자 트랜잭션과 분리)
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLeaseEntity, String> {
+
+    /** 만료된 리스 가져오기 (토큰 +1) */
+    @Modifying(clearAutomatically = true)
+    @Query("update JobLeaseEntity l set l.owner = :owner, l.fencingToken = l.fencingToken + 1, "
+            + "l.acquiredAt = :now, l.renewedAt = :now, l.expiresAt = :expiresAt "
+            + "where l.name = :name and l.expiresAt < :now")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    /** 연장 (소유자 + 토큰이 그대로일 때만) */
+    @Modifying(clearAutomatically = true)
+    @Query("update JobLeaseEntity l set l.renewedAt = :now, l.expiresAt = :expiresAt "
+            + "where l.name = :name and l.owner = :owner and l.fencingToken = :token")
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+              @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    /** 반납 (즉시 만료 처리, 행은 토큰 유지를 위해 남김) */
+    @Modifying(clearAutomatically = true)
+    @Query("update JobLeaseEntity l set l.expiresAt = :now "
+            + "where l.name = :name and l.owner = :owner and l.fencingToken = :token")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+                @Param("now") Instant now);
+
+    /** 펜싱 확인: 아직 이 토큰이 최신이고 만료 전인지 */
+    @Query("select count(l) > 0 from JobLeaseEntity l "
+            + "where l.name = :name and l.fencingToken = :token and l.expiresAt >= :now")
+    boolean isCurrent(@Param("name") String name, @Param("token") long token, @Param("now") Instant now);
+}
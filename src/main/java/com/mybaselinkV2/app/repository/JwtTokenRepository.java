@@ -1,6 +1,7 @@
 package com.mybaselinkV2.app.repository;
 
 import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.jwt.TokenHashes;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,7 +12,15 @@ import java.util.Optional;
 @Repository
 public interface JwtTokenRepository extends JpaRepository<JwtTokenEntity, Long> {
 
-    Optional<JwtTokenEntity> findByToken(String token);
+    Optional<JwtTokenEntity> findByTokenHash(byte[] tokenHash);
+
+    /** 토큰 원문 → SHA-256 키로 조회 (token 원문 비교 없음) */
+    default Optional<JwtTokenEntity> findByToken(String token) {
+        return findByTokenHash(TokenHashes.sha256(token));
+    }
+
+    /** 이관: 해시가 없는 기존 행 */
+    List<JwtTokenEntity> findTop500ByTokenHashIsNull();
 
     List<JwtTokenEntity> findByUsernameAndRevokedFalse(String username);
 
@@ -0,0 +1,63 @@
+package com.mybaselinkV2.app.repository;
+
+import com.mybaselinkV2.app.entity.StockBatchJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockBatchJobRepository extends JpaRepository<StockBatchJobEntity, Long> {
+
+    Optional<StockBatchJobEntity> findByTaskId(String taskId);
+
+    /** 실행 순서: 우선순위 높은 것 → 먼저 들어온 것 */
+    List<StockBatchJobEntity> findByStatusOrderByPriorityDescIdAsc(String status);
+
+    List<StockBatchJobEntity> findByStatusIn(Collection<String> statuses);
+
+    List<StockBatchJobEntity> findByTaskIdIn(Collection<String> taskIds);
+
+    /** 같은 옵션의 대기 작업 (queueKey 유니크 → 최대 1건) */
+    Optional<StockBatchJobEntity> findByQueueKey(String queueKey);
+
+    /**
+     * 작업에 요청 합침 (요청자 +1, 우선순위는 큰 쪽)
+     * - 한 문장으로 갱신 → 다른 노드의 합침과 겹쳐도 요청자 수를 잃지 않음
+     * @return 아직 status 상태여서 합쳤으면 1, 그 사이 상태가 바뀌었으면 0
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update StockBatchJobEntity j set j.requesters = j.requesters + 1, "
+            + "j.priority = case when :priority > j.priority then :priority else j.priority end "
+            + "where j.id = :id and j.status = :status")
+    int join(@Param("id") Long id, @Param("status") String status, @Param("priority") int priority);
+
+    /**
+     * 대기 작업 → RUNNING (queueKey 해제)
+     * - 조건부 갱신 → 그 사이 다른 노드가 합친 요청자 수를 덮어쓰지 않음
+     * @return 대기 중이던 작업이면 1, 그 사이 취소됐으면 0
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update StockBatchJobEntity j set j.status = 'RUNNING', j.startedAt = :now, j.queueKey = null "
+            + "where j.id = :id and j.status = 'QUEUED'")
+    int start(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    long deleteAllByFinishedAtBefore(Instant before);
+
+    /** 실행 중(또는 재등록된) 작업에 취소 요청 기록 → 실행 노드가 확인 후 종료 (끝난 작업이면 0) */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update StockBatchJobEntity j set j.cancelRequested = true "
+            + "where j.taskId = :taskId and j.status in ('QUEUED', 'RUNNING')")
+    int requestCancel(@Param("taskId") String taskId);
+}
@@ -0,0 +1,16 @@
+package com.mybaselinkV2.app.repository;
+
+import com.mybaselinkV2.app.entity.TaskSnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface TaskSnapshotRepository extends JpaRepository<TaskSnapshotEntity, String> {
+
+    /** 보관 기간이 지난 끝난 작업 */
+    @Transactional
+    long deleteAllByFinishedTrueAndWrittenAtBefore(Instant before);
+}
@@ -1,14 +1,19 @@
 package com.mybaselinkV2.app.scheduler;
 
 import java.time.Instant;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.mybaselinkV2.app.entity.JwtTokenEntity;
 import com.mybaselinkV2.app.repository.JwtTokenRepository;
+import com.mybaselinkV2.app.service.LeaseService;
 
 
 /**
@@ -16,15 +21,19 @@ import com.mybaselinkV2.app.repository.JwtTokenRepository;
  *
  * - 만료된 JWT 토큰을 매일 자동 삭제
  * - @Transactional 적용으로 커넥션 누수 방지
+ * - 여러 노드 중 리스를 얻은 1개 노드만 실행 (LeaseService.runOnce)
+ * - 시작 시 token_hash 가 없는 기존 행 채움 (조회 키 이관)
  */
 @Component
 public class JwtTokenCleanupScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenCleanupScheduler.class);
     private final JwtTokenRepository tokenRepository;
+    private final LeaseService leaseService;
 
-    public JwtTokenCleanupScheduler(JwtTokenRepository tokenRepository) {
+    public JwtTokenCleanupScheduler(JwtTokenRepository tokenRepository, LeaseService leaseService) {
         this.tokenRepository = tokenRepository;
+        this.leaseService = leaseService;
     }
 
     /**
@@ -36,8 +45,34 @@ public class JwtTokenCleanupScheduler {
     @Scheduled(cron = "0 0 3 * * ?")
     @Transactional
     public void removeExpiredTokens() {
-        Instant now = Instant.now();
-        long deletedCount = tokenRepository.deleteAllByExpiresAtBefore(now);
-        logger.info("⏰ JwtTokenCleanupScheduler - 만료 토큰 삭제 완료. 삭제된 토큰 수: {}", deletedCount);
+        leaseService.runOnce("jwt-token-cleanup", () -> {
+            Instant now = Instant.now();
+            long deletedCount = tokenRepository.deleteAllByExpiresAtBefore(now);
+            logger.info("⏰ JwtTokenCleanupScheduler - 만료 토큰 삭제 완료. 삭제된 토큰 수: {}", deletedCount);
+        });
+    }
+
+    /**
+     * 🔹 시작 시 1회: token_hash 가 비어 있는 기존 행 채움
+     *
+     * - 조회는 token_hash 로만 하므로 이관 전 토큰은 채워지기 전까지 인증 실패
+     * - Postgres 는 db/migration/jwt_tokens_token_hash.sql 이 배포 전에 채움 → 여기서는 남은 행만
+     * - 500행씩 저장 (@PrePersist/@PreUpdate 가 해시 계산), 여러 노드가 동시에 돌아도 결과 동일
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTokenHashes() {
+        long filled = 0;
+        try {
+            List<JwtTokenEntity> batch;
+            while (!(batch = tokenRepository.findTop500ByTokenHashIsNull()).isEmpty()) {
+                batch.forEach(t -> t.setToken(t.getToken()));
+                tokenRepository.saveAll(batch);
+                filled += batch.size();
+            }
+        } catch (Exception e) {
+            logger.warn("⏰ JwtTokenCleanupScheduler - token_hash 이관 실패 ({}건 처리 후): {}", filled, e.getMessage());
+            return;
+        }
+        if (filled > 0) logger.info("⏰ JwtTokenCleanupScheduler - token_hash 이관 완료: {}건", filled);
     }
 }
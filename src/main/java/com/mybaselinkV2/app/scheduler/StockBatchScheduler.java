@@ -0,0 +1,57 @@
+package com.mybaselinkV2.app.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mybaselinkV2.app.service.LeaseService;
+import com.mybaselinkV2.app.service.StockBatchJobQueue;
+
+
+/**
+ * ⏰ StockBatchScheduler
+ *
+ * - 정해진 시각에 종목 일괄 업데이트를 대기열에 등록
+ * - application.batch.schedule.cron 이 "-" 이면 비활성 (기본값)
+ * - 사용자 요청과 같은 옵션이면 그 작업에 합쳐짐
+ * - 여러 노드 중 리스를 얻은 1개 노드만 등록 (LeaseService.runOnce)
+ */
+@Component
+public class StockBatchScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockBatchScheduler.class);
+    private final StockBatchJobQueue jobQueue;
+    private final LeaseService leaseService;
+
+    @Value("${application.batch.schedule.workers:8}")
+    private int workers;
+
+    @Value("${application.batch.schedule.force:false}")
+    private boolean force;
+
+    @Value("${application.batch.schedule.priority:1}")
+    private int priority;
+
+    public StockBatchScheduler(StockBatchJobQueue jobQueue, LeaseService leaseService) {
+        this.jobQueue = jobQueue;
+        this.leaseService = leaseService;
+    }
+
+    /**
+     * 🔹 예약 실행 (예: 평일 16:30 → "0 30 16 * * MON-FRI")
+     */
+    @Scheduled(cron = "${application.batch.schedule.cron:-}", zone = "Asia/Seoul")
+    public void scheduledUpdate() {
+        leaseService.runOnce("stock-batch-schedule", () -> {
+            try {
+                StockBatchJobQueue.Ticket ticket = jobQueue.submit(force, workers, 0, false, priority, "scheduler");
+                logger.info("⏰ StockBatchScheduler - 예약 업데이트 등록: {} ({}{})", ticket.taskId(), ticket.status(),
+                        ticket.attached() ? ", 기존 작업에 합침" : "");
+            } catch (IllegalStateException e) {
+                logger.warn("⏰ StockBatchScheduler - 예약 업데이트 등록 실패: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -8,15 +8,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.jwt.JwtAuthCache;
 import com.mybaselinkV2.app.repository.JwtTokenRepository;
 
 @Service
 public class AuthService {
 
     private final JwtTokenRepository tokenRepository;
+    private final JwtAuthCache authCache;
 
-    public AuthService(JwtTokenRepository tokenRepository) {
+    public AuthService(JwtTokenRepository tokenRepository, JwtAuthCache authCache) {
         this.tokenRepository = tokenRepository;
+        this.authCache = authCache;
     }
 
     @Transactional
@@ -28,6 +31,7 @@ public class AuthService {
         entity.setExpiresAt(expiresAt);
         entity.setRevoked(false);
         tokenRepository.save(entity);
+        authCache.put(entity);
     }
 
     @Transactional
@@ -37,6 +41,7 @@ public class AuthService {
             t.setRevoked(true);
             tokenRepository.save(t);
         });
+        authCache.revoke(token, opt);
     }
 
     @Transactional
@@ -51,6 +56,7 @@ public class AuthService {
             t.setRevoked(true);
             tokenRepository.save(t);
         });
+        authCache.revoke(oldToken, optOld);
 
         JwtTokenEntity newEntity = new JwtTokenEntity();
         newEntity.setToken(newToken);
@@ -60,11 +66,12 @@ public class AuthService {
         newEntity.setRevoked(false);
 
         tokenRepository.save(newEntity);
+        authCache.put(newEntity);
     }
 
+    /** 저장 상태 확인 (JwtAuthCache 경유, 캐시에 있으면 DB 조회 없음) */
     public boolean isTokenValid(String token) {
-        Optional<JwtTokenEntity> opt = tokenRepository.findByToken(token);
-        return opt.isPresent() && !opt.get().isRevoked() && opt.get().getExpiresAt().isAfter(Instant.now());
+        return authCache.isValid(token);
     }
 
     public Optional<JwtTokenEntity> findByToken(String token) {
@@ -0,0 +1,198 @@
+package com.mybaselinkV2.app.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BatchCheckpoint
+ * --------------------------------------------------------
+ * 종목 갱신 배치의 완료 종목 기록 (append-only 파일)
+ *
+ * ✅ 파일 형식 (한 줄 = 레코드 1개, TAB 구분)
+ *   H    taskId  force  startedAtMillis   ← 실행(또는 이어하기) 시작
+ *   OK   005930                            ← 저장/캐시/데이터 없음 → 다시 받을 필요 없음
+ *   FAIL 000660                            ← 실패 → 이어하기 때 재시도
+ *
+ * - 줄마다 flush → 시간 초과/취소/프로세스 강제 종료 후에도 직전 종목까지 남음
+ * - 중간에 잘린 마지막 줄은 읽을 때 무시
+ * - 같은 종목이 여러 번 나오면 마지막 결과 기준 (FAIL 후 OK → 완료)
+ * - 여러 샤드 읽기 스레드가 동시에 기록 → ReentrantLock
+ *   (읽기 스레드가 가상 스레드일 수 있음 → 파일 쓰기 중 synchronized 로 캐리어 스레드를 고정하지 않음)
+ * --------------------------------------------------------
+ */
+public final class BatchCheckpoint implements AutoCloseable {
+
+    public static final String FILE_NAME = "stock-update.ckpt";
+
+    private final Path file;
+    private final boolean force;
+    private final Set<String> done = new HashSet<>();
+    private final Set<String> failed = new LinkedHashSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    private BatchCheckpoint(Path file, boolean force) {
+        this.file = file;
+        this.force = force;
+    }
+
+    /** 새 체크포인트 (기존 파일 덮어씀) */
+    public static BatchCheckpoint create(Path dir, String taskId, boolean force) throws IOException {
+        Files.createDirectories(dir);
+        BatchCheckpoint cp = new BatchCheckpoint(dir.resolve(FILE_NAME), force);
+        cp.writer = Files.newBufferedWriter(cp.file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        cp.header(taskId);
+        return cp;
+    }
+
+    /**
+     * 기존 체크포인트 이어쓰기
+     * @return 파일이 없거나 헤더가 없으면 null
+     */
+    public static BatchCheckpoint resume(Path dir, String taskId) throws IOException {
+        BatchCheckpoint cp = load(dir);
+        if (cp == null) return null;
+
+        cp.writer = Files.newBufferedWriter(cp.file, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        cp.header(taskId);
+        return cp;
+    }
+
+    /**
+     * 기존 체크포인트 읽기 전용 (조회용, 기록 불가)
+     * @return 파일이 없거나 헤더가 없으면 null
+     */
+    public static BatchCheckpoint load(Path dir) throws IOException {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.exists(file)) return null;
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        BatchCheckpoint cp = null;
+        for (String line : lines) {
+            String[] f = line.split("\t");
+            if (f.length < 2) continue; // 잘린 줄
+            switch (f[0]) {
+                case "H" -> {
+                    // 최초 실행의 force 를 끝까지 유지
+                    if (cp == null) cp = new BatchCheckpoint(file, f.length > 2 && Boolean.parseBoolean(f[2]));
+                }
+                case "OK" -> {
+                    if (cp != null) cp.markDone(f[1]);
+                }
+                case "FAIL" -> {
+                    if (cp != null) cp.markFailed(f[1]);
+                }
+                default -> { }
+            }
+        }
+        return cp;
+    }
+
+    /** 최초 실행의 force 옵션 */
+    public boolean isForce() {
+        return force;
+    }
+
+    /** 종목 1건 결과 기록 (result: ok / cached / empty / fail) */
+    public void record(String code, String result) throws IOException {
+        lock.lock();
+        try {
+            boolean ok = !"fail".equals(result);
+            if (ok) markDone(code); else markFailed(code);
+            if (writer != null) {
+                writer.write(ok ? "OK\t" : "FAIL\t");
+                writer.write(code);
+                writer.newLine();
+                writer.flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isDone(String code) {
+        lock.lock();
+        try {
+            return done.contains(code);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isFailed(String code) {
+        lock.lock();
+        try {
+            return failed.contains(code);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int doneCount() {
+        lock.lock();
+        try {
+            return done.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int failedCount() {
+        lock.lock();
+        try {
+            return failed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 파일 삭제 (전 종목 성공 시) */
+    public void delete() throws IOException {
+        lock.lock();
+        try {
+            close();
+            Files.deleteIfExists(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void header(String taskId) throws IOException {
+        writer.write("H\t" + taskId + "\t" + force + "\t" + System.currentTimeMillis());
+        writer.newLine();
+        writer.flush();
+    }
+
+    private void markDone(String code) {
+        done.add(code);
+        failed.remove(code);
+    }
+
+    private void markFailed(String code) {
+        if (!done.contains(code)) failed.add(code);
+    }
+}
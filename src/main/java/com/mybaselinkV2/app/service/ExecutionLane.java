@@ -0,0 +1,161 @@
+package com.mybaselinkV2.app.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ExecutionLane
+ * --------------------------------------------------------
+ * 작업 종류별 실행 차선 (bulkhead)
+ * - maxConcurrent: 동시 실행 수 (Semaphore, 호출 스레드에서 그대로 실행)
+ * - maxQueue     : 자리를 기다리는 호출 수 상한 → 넘으면 즉시 거절 (LaneFullException)
+ * - timeout      : 대기 + 실행 전체 시간 한도 → 남은 시간을 작업에 넘겨줌
+ *
+ * ✅ 다른 차선이 꽉 차도 이 차선의 자리는 그대로 → 긴 분석/배치가 차트 요청을 굶기지 않음
+ * ✅ 통계: 실행/대기 수, 완료/실패/거절/시간 초과 건수, 최근 LATENCY_WINDOW 건의 지연 p50/p95/p99
+ * --------------------------------------------------------
+ */
+public final class ExecutionLane {
+
+    /** 대기열이 가득 참 (HTTP 429) */
+    public static final class LaneFullException extends RuntimeException {
+        public LaneFullException(String lane) {
+            super("요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도하세요. (" + lane + ")");
+        }
+    }
+
+    /** 차선 안에서 실행할 작업 (remainingNanos = 대기 후 남은 시간 한도) */
+    @FunctionalInterface
+    public interface LaneTask<T> {
+        T run(long remainingNanos) throws Exception;
+    }
+
+    private static final int LATENCY_WINDOW = 1024;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration timeout;
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    // 최근 지연 (ms) 링 버퍼: 전체(대기+실행) / 대기
+    private final long[] totalMs = new long[LATENCY_WINDOW];
+    private final long[] waitMs = new long[LATENCY_WINDOW];
+    private int samples = 0;
+    private int next = 0;
+
+    public ExecutionLane(String name, int maxConcurrent, int maxQueue, Duration timeout) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.timeout = timeout;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+    }
+
+    public String name() { return name; }
+    public int maxConcurrent() { return maxConcurrent; }
+    public int maxQueue() { return maxQueue; }
+    public Duration timeout() { return timeout; }
+
+    /**
+     * 자리가 나면 호출 스레드에서 실행
+     * @throws LaneFullException 대기 중인 호출이 maxQueue 이상
+     * @throws TimeoutException  timeout 안에 자리가 나지 않음
+     */
+    public <T> T call(LaneTask<T> task) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+
+        if (!permits.tryAcquire()) {
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                rejected.incrementAndGet();
+                throw new LaneFullException(name);
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } finally {
+                waiting.decrementAndGet();
+            }
+            if (!acquired) {
+                timedOut.incrementAndGet();
+                throw new TimeoutException(name + " 차선 대기 시간 초과 (" + timeout.toSeconds() + "초)");
+            }
+        }
+
+        long acquiredAt = System.nanoTime();
+        active.incrementAndGet();
+        try {
+            T result = task.run(deadline - acquiredAt);
+            completed.incrementAndGet();
+            return result;
+        } catch (TimeoutException e) {
+            timedOut.incrementAndGet();
+            throw e;
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+            recordLatency(System.nanoTime() - start, acquiredAt - start);
+        }
+    }
+
+    /** 차선 통계 */
+    public Map<String, Object> stats() {
+        long[] total, wait;
+        synchronized (this) {
+            total = Arrays.copyOf(totalMs, samples);
+            wait = Arrays.copyOf(waitMs, samples);
+        }
+        Arrays.sort(total);
+        Arrays.sort(wait);
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxConcurrent", maxConcurrent);
+        m.put("maxQueue", maxQueue);
+        m.put("timeoutSeconds", timeout.toSeconds());
+        m.put("active", active.get());
+        m.put("waiting", waiting.get());
+        m.put("completed", completed.get());
+        m.put("failed", failed.get());
+        m.put("rejected", rejected.get());
+        m.put("timedOut", timedOut.get());
+        m.put("samples", total.length);
+        m.put("p50Ms", percentile(total, 50));
+        m.put("p95Ms", percentile(total, 95));
+        m.put("p99Ms", percentile(total, 99));
+        m.put("waitP99Ms", percentile(wait, 99));
+        return m;
+    }
+
+    private synchronized void recordLatency(long totalNanos, long waitNanos) {
+        totalMs[next] = TimeUnit.NANOSECONDS.toMillis(totalNanos);
+        waitMs[next] = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        next = (next + 1) % LATENCY_WINDOW;
+        if (samples < LATENCY_WINDOW) samples++;
+    }
+
+    /** 정렬된 배열의 p 백분위 (nearest-rank), 표본 없으면 0 */
+    static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
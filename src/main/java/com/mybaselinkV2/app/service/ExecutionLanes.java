@@ -0,0 +1,67 @@
+package com.mybaselinkV2.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ExecutionLanes
+ * --------------------------------------------------------
+ * 실행 차선 3개 (application.lanes.*)
+ *   interactive : 비교 차트 등 사용자가 화면에서 바로 기다리는 요청
+ *   analysis    : 유사 종목 / 차트 패턴 전체 스캔
+ *   batch       : 전체 종목 업데이트 (StockBatchJobQueue, 대기열 = 배치 작업 대기열)
+ *
+ * ✅ interactive + analysis 동시 수 합이 Python 워커 수 이하이면
+ *    분석이 몰려도 차트 요청 몫의 워커는 항상 남음
+ * --------------------------------------------------------
+ */
+@Component
+public class ExecutionLanes {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionLanes.class);
+
+    private final ExecutionLane interactive;
+    private final ExecutionLane analysis;
+    private final ExecutionLane batch;
+
+    public ExecutionLanes(@Value("${application.lanes.interactive.max-concurrent:1}") int interactiveConcurrent,
+                          @Value("${application.lanes.interactive.max-queue:32}") int interactiveQueue,
+                          @Value("${application.lanes.interactive.timeout-seconds:20}") long interactiveTimeout,
+                          @Value("${application.lanes.analysis.max-concurrent:1}") int analysisConcurrent,
+                          @Value("${application.lanes.analysis.max-queue:8}") int analysisQueue,
+                          @Value("${application.lanes.analysis.timeout-seconds:120}") long analysisTimeout,
+                          @Value("${application.lanes.batch.max-queue:20}") int batchQueue,
+                          @Value("${application.lanes.batch.timeout-minutes:60}") long batchTimeout,
+                          @Value("${application.analysis.worker.size:2}") int workerPoolSize) {
+        this.interactive = new ExecutionLane("interactive", interactiveConcurrent, interactiveQueue,
+                Duration.ofSeconds(interactiveTimeout));
+        this.analysis = new ExecutionLane("analysis", analysisConcurrent, analysisQueue,
+                Duration.ofSeconds(analysisTimeout));
+        // 업데이트는 동시에 1개만 (StockBatchService.activeLock), 대기는 작업 대기열이 담당
+        this.batch = new ExecutionLane("batch", 1, batchQueue, Duration.ofMinutes(batchTimeout));
+
+        if (interactive.maxConcurrent() + analysis.maxConcurrent() > workerPoolSize) {
+            log.warn("⚠️ interactive({}) + analysis({}) 동시 수가 Python 워커 수({})보다 많음 → 분석이 차트 요청 워커를 차지할 수 있음",
+                    interactive.maxConcurrent(), analysis.maxConcurrent(), workerPoolSize);
+        }
+    }
+
+    public ExecutionLane interactive() { return interactive; }
+    public ExecutionLane analysis() { return analysis; }
+    public ExecutionLane batch() { return batch; }
+
+    /** 차선별 통계 */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put(interactive.name(), interactive.stats());
+        m.put(analysis.name(), analysis.stats());
+        m.put(batch.name(), batch.stats());
+        return m;
+    }
+}
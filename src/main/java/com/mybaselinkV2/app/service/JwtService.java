@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.jwt.JwtAuthCache;
 import com.mybaselinkV2.app.repository.JwtTokenRepository;
 
 /**
@@ -20,16 +21,20 @@ import com.mybaselinkV2.app.repository.JwtTokenRepository;
 public class JwtService {
 
     private final JwtTokenRepository jwtTokenRepository;
+    private final JwtAuthCache authCache;
 
-    public JwtService(JwtTokenRepository jwtTokenRepository) {
+    public JwtService(JwtTokenRepository jwtTokenRepository, JwtAuthCache authCache) {
         this.jwtTokenRepository = jwtTokenRepository;
+        this.authCache = authCache;
     }
 
     /**
      * 토큰 저장
      */
     public JwtTokenEntity saveToken(JwtTokenEntity token) {
-        return jwtTokenRepository.save(token);
+        JwtTokenEntity saved = jwtTokenRepository.save(token);
+        authCache.put(saved);
+        return saved;
     }
 
     /**
@@ -60,9 +65,11 @@ public class JwtService {
      */
     @Transactional
     public void revokeToken(String token) {
-        jwtTokenRepository.findByToken(token).ifPresent(t -> {
+        Optional<JwtTokenEntity> opt = jwtTokenRepository.findByToken(token);
+        opt.ifPresent(t -> {
             t.setRevoked(true);
             jwtTokenRepository.save(t);
         });
+        authCache.revoke(token, opt);
     }
 }
@@ -0,0 +1,134 @@
+package com.mybaselinkV2.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * KrxTradingCalendar
+ * --------------------------------------------------------
+ * KRX 거래일 달력 (주말 + 휴장일)
+ * - 기본 휴장일은 holidays-file (기본: classpath calendar/krx_holidays.txt), 임시 휴장일은 extra-holidays 로 보충
+ * - 파일에 없는 해는 주말만 빼고 모두 거래일로 계산 → coverageWarning() 으로 알림 (기동 로그 + /freshness)
+ * - "지금 받을 수 있는 마지막 일봉 날짜" = 오늘이 거래일이고 data-ready-time 이후면 오늘,
+ *   아니면 직전 거래일 (한국 시간 기준)
+ * --------------------------------------------------------
+ */
+@Component
+public class KrxTradingCalendar {
+
+    private static final Logger log = LoggerFactory.getLogger(KrxTradingCalendar.class);
+
+    public static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    static final String DEFAULT_HOLIDAYS_FILE = "calendar/krx_holidays.txt";
+
+    private final Set<LocalDate> holidays = new HashSet<>();
+    // 휴장일 파일에 날짜가 있는 해 (extra-holidays 의 임시 휴장일만 있는 해는 제외)
+    private final Set<Integer> coveredYears = new TreeSet<>();
+    private final LocalTime dataReadyTime;
+    private final Clock clock;
+
+    @Autowired
+    public KrxTradingCalendar(@Value("${application.stock.calendar.holidays-file:classpath:" + DEFAULT_HOLIDAYS_FILE + "}") Resource holidaysFile,
+                              @Value("${application.stock.calendar.extra-holidays:}") String extraHolidays,
+                              @Value("${application.stock.calendar.data-ready-time:16:00}") String dataReadyTime) {
+        this(readHolidays(holidaysFile), extraHolidays, LocalTime.parse(dataReadyTime), Clock.system(KST));
+    }
+
+    KrxTradingCalendar(String extraHolidays, LocalTime dataReadyTime, Clock clock) {
+        this(readHolidays(new ClassPathResource(DEFAULT_HOLIDAYS_FILE)), extraHolidays, dataReadyTime, clock);
+    }
+
+    KrxTradingCalendar(Set<LocalDate> baseHolidays, String extraHolidays, LocalTime dataReadyTime, Clock clock) {
+        holidays.addAll(baseHolidays);
+        baseHolidays.forEach(d -> coveredYears.add(d.getYear()));
+        if (extraHolidays != null) {
+            for (String d : extraHolidays.split(",")) {
+                if (!d.isBlank()) holidays.add(LocalDate.parse(d.trim()));
+            }
+        }
+        this.dataReadyTime = dataReadyTime;
+        this.clock = clock;
+        coverageWarning().ifPresent(log::warn);
+    }
+
+    /** 휴장일 파일 읽기 (한 줄에 날짜 1개, '#' 뒤 주석) */
+    static Set<LocalDate> readHolidays(Resource file) {
+        Set<LocalDate> dates = new HashSet<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                int hash = line.indexOf('#');
+                String d = (hash >= 0 ? line.substring(0, hash) : line).trim();
+                if (!d.isEmpty()) dates.add(LocalDate.parse(d));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("KRX 휴장일 파일을 읽을 수 없습니다: " + file.getDescription(), e);
+        }
+        return dates;
+    }
+
+    /**
+     * 휴장일 목록이 없는 해 경고 (올해, 12월이면 다음 해도)
+     * @return 목록이 모두 있으면 빈 Optional
+     */
+    public Optional<String> coverageWarning() {
+        LocalDate today = ZonedDateTime.now(clock).withZoneSameInstant(KST).toLocalDate();
+        int year = today.getYear();
+        if (!coveredYears.contains(year)) {
+            return Optional.of("KRX 휴장일 목록에 " + year + "년이 없습니다 → 휴장일도 거래일로 계산됨 (holidays-file 에 추가 필요, 목록: " + coveredYears + ")");
+        }
+        if (today.getMonthValue() == 12 && !coveredYears.contains(year + 1)) {
+            return Optional.of("KRX 휴장일 목록에 " + (year + 1) + "년이 아직 없습니다 (KRX 공지 후 holidays-file 에 추가 필요)");
+        }
+        return Optional.empty();
+    }
+
+    public boolean isTradingDay(LocalDate d) {
+        DayOfWeek w = d.getDayOfWeek();
+        return w != DayOfWeek.SATURDAY && w != DayOfWeek.SUNDAY && !holidays.contains(d);
+    }
+
+    /** d 이전(d 제외) 마지막 거래일 */
+    public LocalDate previousTradingDay(LocalDate d) {
+        LocalDate p = d.minusDays(1);
+        while (!isTradingDay(p)) p = p.minusDays(1);
+        return p;
+    }
+
+    /** d 이후(d 제외) 첫 거래일 */
+    public LocalDate nextTradingDay(LocalDate d) {
+        LocalDate n = d.plusDays(1);
+        while (!isTradingDay(n)) n = n.plusDays(1);
+        return n;
+    }
+
+    /** 지금 받을 수 있는 마지막 일봉 날짜 */
+    public LocalDate expectedLastBarDate() {
+        ZonedDateTime now = ZonedDateTime.now(clock).withZoneSameInstant(KST);
+        LocalDate today = now.toLocalDate();
+        if (isTradingDay(today) && !now.toLocalTime().isBefore(dataReadyTime)) return today;
+        return previousTradingDay(today);
+    }
+}
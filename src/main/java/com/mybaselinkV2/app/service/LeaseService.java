@@ -0,0 +1,252 @@
+package com.mybaselinkV2.app.service;
+
+import com.mybaselinkV2.app.entity.JobLeaseEntity;
+import com.mybaselinkV2.app.repository.JobLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LeaseService
+ * --------------------------------------------------------
+ * 노드 간 작업 조율 (DB 리스 테이블 job_leases, 기존 JPA 데이터소스 사용)
+ *
+ * ✅ tryAcquire(name, ttl)
+ *   - 행이 없으면 INSERT (토큰 1), 만료된 행이면 조건부 UPDATE 로 가져옴 (토큰 +1)
+ *   - 다른 노드가 보유 중(만료 전)이면 빈 Optional → 기다리지 않음
+ * ✅ 연장: ttl/3 마다 자동 renew, 실패(다른 노드가 가져감 / DB 장애로 만료 지남) → lost + onLost 콜백
+ * ✅ 인계: 보유 노드가 죽으면 renew 가 끊겨 ttl 후 만료 → 다른 노드가 가져감
+ * ✅ 펜싱: Lease.isCurrent() 로 공유 자원 쓰기 직전 DB 의 토큰이 아직 내 것인지 확인
+ *
+ * - @Scheduled 작업은 runOnce(name, holdFor, task) → 같은 시각에 여러 노드가 깨어나도 1번만 실행
+ * - 시각은 각 노드 JVM 기준 → 노드 간 시계 차이는 ttl / holdFor 보다 충분히 작아야 함
+ * - 트랜잭션은 항상 REQUIRES_NEW (호출자 트랜잭션이 끝날 때까지 리스가 커밋되지 않는 일 방지)
+ * --------------------------------------------------------
+ */
+@Service
+public class LeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaseService.class);
+
+    private final JobLeaseRepository repository;
+    private final TransactionTemplate tx;
+    private final String nodeId;
+
+    @Value("${application.cluster.lease.schedule-hold-seconds:30}")
+    private long scheduleHoldSeconds;
+
+    private final Set<Lease> held = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "LeaseRenewer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LeaseService(JobLeaseRepository repository, PlatformTransactionManager txManager,
+                        @Value("${application.cluster.node-id:}") String nodeId) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+        log.info("🔗 클러스터 노드 ID: {}", this.nodeId);
+    }
+
+    // ==================================
+    // 보유 중인 리스 1개
+    // ==================================
+    public final class Lease implements AutoCloseable {
+        private final String name;
+        private final long token;
+        private final Duration ttl;
+        private final List<Runnable> onLost = new CopyOnWriteArrayList<>();
+        private volatile Instant expiresAt;
+        private volatile boolean lost = false;
+        private volatile boolean closed = false;
+        private ScheduledFuture<?> renewal;
+
+        private Lease(String name, long token, Duration ttl, Instant expiresAt) {
+            this.name = name;
+            this.token = token;
+            this.ttl = ttl;
+            this.expiresAt = expiresAt;
+        }
+
+        public String name() { return name; }
+        public long token() { return token; }
+
+        /** 로컬 판단: 연장 실패/반납 전인지 (DB 조회 없음) */
+        public boolean isHeld() {
+            return !lost && !closed && Instant.now().isBefore(expiresAt);
+        }
+
+        /** 펜싱 확인: DB 의 토큰이 아직 이 리스이고 만료 전인지 (공유 자원 쓰기 직전에 호출) */
+        public boolean isCurrent() {
+            if (!isHeld()) return false;
+            try {
+                return Boolean.TRUE.equals(tx.execute(st -> repository.isCurrent(name, token, Instant.now())));
+            } catch (Exception e) {
+                log.warn("리스 확인 실패 ({}): {}", name, e.getMessage());
+                return false;
+            }
+        }
+
+        /** 리스를 잃었을 때 (다른 노드가 가져감) 실행 → 진행 중 작업 중단 */
+        public void onLost(Runnable callback) {
+            onLost.add(callback);
+            if (lost) callback.run();
+        }
+
+        /** 반납 (다른 노드가 바로 가져갈 수 있음) */
+        @Override
+        public void close() {
+            stopRenewal();
+            if (lost) return;
+            try {
+                tx.executeWithoutResult(st -> repository.release(name, nodeId, token, Instant.now()));
+            } catch (Exception e) {
+                log.warn("리스 반납 실패 ({}), ttl 후 만료됨: {}", name, e.getMessage());
+            }
+        }
+
+        /** 반납하지 않고 연장만 중단 (expiresAt 까지 다른 노드 차단) */
+        private void stopRenewal() {
+            closed = true;
+            held.remove(this);
+            if (renewal != null) renewal.cancel(false);
+        }
+
+        private void renew() {
+            if (closed || lost) return;
+            Instant now = Instant.now();
+            Instant next = now.plus(ttl);
+            try {
+                Integer n = tx.execute(st -> repository.renew(name, nodeId, token, now, next));
+                if (n != null && n == 1) {
+                    expiresAt = next;
+                    return;
+                }
+                markLost("다른 노드가 가져감");
+            } catch (Exception e) {
+                // DB 일시 장애 → 만료 전이면 다음 주기에 재시도
+                if (!now.isBefore(expiresAt)) markLost("연장 실패 후 만료: " + e.getMessage());
+                else log.warn("리스 연장 실패 ({}), 재시도: {}", name, e.getMessage());
+            }
+        }
+
+        private void markLost(String why) {
+            if (lost) return;
+            lost = true;
+            stopRenewal();
+            log.warn("🔗 리스 상실: {} (token={}) - {}", name, token, why);
+            for (Runnable r : onLost) {
+                try { r.run(); } catch (Exception e) { log.warn("리스 상실 처리 오류 ({})", name, e); }
+            }
+        }
+    }
+
+    /**
+     * 리스 획득 시도 (기다리지 않음), 성공 시 close() 전까지 자동 연장
+     * @return 다른 노드가 보유 중이면 빈 Optional
+     */
+    public Optional<Lease> tryAcquire(String name, Duration ttl) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        Long token;
+        try {
+            token = tx.execute(st -> {
+                if (repository.takeOver(name, nodeId, now, expiresAt) == 1) {
+                    return repository.findById(name).map(JobLeaseEntity::getFencingToken).orElse(null);
+                }
+                if (repository.existsById(name)) return null; // 다른 노드 보유 중
+                repository.saveAndFlush(new JobLeaseEntity(name, nodeId, 1, now, expiresAt));
+                return 1L;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty(); // 같은 순간 다른 노드가 먼저 INSERT
+        }
+        if (token == null) return Optional.empty();
+
+        Lease lease = new Lease(name, token, ttl, expiresAt);
+        long period = Math.max(1000, ttl.toMillis() / 3);
+        lease.renewal = renewer.scheduleAtFixedRate(lease::renew, period, period, TimeUnit.MILLISECONDS);
+        held.add(lease);
+        log.info("🔗 리스 획득: {} (token={})", name, token);
+        return Optional.of(lease);
+    }
+
+    /**
+     * @Scheduled 작업용: 리스를 얻은 노드 1개만 실행
+     * - 끝나도 반납하지 않음 → schedule-hold-seconds 동안 같은 시각에 깨어난 다른 노드는 건너뜀
+     * @return 실행했으면 true
+     */
+    public boolean runOnce(String name, Runnable task) {
+        Optional<Lease> acquired = tryAcquire(name, Duration.ofSeconds(scheduleHoldSeconds));
+        if (acquired.isEmpty()) {
+            log.info("🔗 {} - 다른 노드가 실행 중/실행함, 건너뜀", name);
+            return false;
+        }
+        Lease lease = acquired.get();
+        try {
+            task.run();
+            return true;
+        } finally {
+            lease.stopRenewal();
+        }
+    }
+
+    /** 리스 현황 (조회용) */
+    public Map<String, Object> describe(String name) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        repository.findById(name).ifPresent(l -> {
+            m.put("owner", l.getOwner());
+            m.put("token", l.getFencingToken());
+            m.put("expiresAt", l.getExpiresAt());
+            m.put("active", l.getExpiresAt().isAfter(Instant.now()));
+            m.put("mine", nodeId.equals(l.getOwner()));
+        });
+        return m;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /** 종료 시 보유 리스 반납 → 다른 노드가 ttl 을 기다리지 않고 인계 */
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+        for (Lease l : held) l.close();
+    }
+}
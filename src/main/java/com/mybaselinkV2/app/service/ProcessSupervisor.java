@@ -0,0 +1,277 @@
+package com.mybaselinkV2.app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ProcessSupervisor
+ * --------------------------------------------------------
+ * Python 프로세스 감시 / 종료 / 자원 사용량
+ *
+ * ✅ 트리 종료 (killTree)
+ *   - process.destroyForcibly() 는 본인만 죽임 → ThreadPool/multiprocessing 자식이 남음
+ *   - 자손 목록을 먼저 잡아 두고 전체에 SIGTERM → kill-grace-ms 후 남은 것 SIGKILL
+ * ✅ 출력 정지 감시 (stall-timeout-seconds, 0 = 끔)
+ *   - 읽기 스레드가 줄마다 touch() → 마지막 출력 후 한도를 넘기면 트리 종료
+ *   - 60분 시간 한도까지 기다리지 않고 멈춘 실행을 일찍 끊음
+ * ✅ 자원 사용량 (sample-seconds 마다)
+ *   - CPU: ProcessHandle.Info.totalCpuDuration (본인 + 자손)
+ *   - RSS: /proc/<pid>/status 의 VmRSS (본인 + 자손, Linux 만)
+ *   - 작업(taskId)별 누적 CPU / 최대 RSS / 프로세스 수 / 정지 종료 수 → usage(taskId)
+ * --------------------------------------------------------
+ */
+@Component
+public class ProcessSupervisor {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessSupervisor.class);
+
+    @Value("${application.process.stall-timeout-seconds:300}")
+    private long stallTimeoutSeconds;
+
+    @Value("${application.process.kill-grace-ms:2000}")
+    private long killGraceMs;
+
+    private final Set<Supervised> live = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, TaskUsage> usages = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ProcSupervisor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ProcessSupervisor(@Value("${application.process.sample-seconds:5}") long sampleSeconds) {
+        long period = Math.max(1, sampleSeconds);
+        sampler.scheduleWithFixedDelay(this::sampleAll, period, period, TimeUnit.SECONDS);
+    }
+
+    // ==================================
+    // 감시 대상 1개
+    // ==================================
+    public final class Supervised implements AutoCloseable {
+        private final String taskId;
+        private final String label;
+        private final Process process;
+        private final TaskUsage usage;
+        private volatile long lastOutputNanos = System.nanoTime();
+        private volatile boolean stalled = false;
+        private long cpuMs = 0;    // 마지막 샘플 (종료 후에는 조회 불가 → 마지막 값 사용)
+        private long rssKb = 0;
+
+        private Supervised(String taskId, String label, Process process, TaskUsage usage) {
+            this.taskId = taskId;
+            this.label = label;
+            this.process = process;
+            this.usage = usage;
+        }
+
+        /** 출력 1줄 (진행 중 표시) */
+        public void touch() {
+            lastOutputNanos = System.nanoTime();
+        }
+
+        /** 출력 정지로 종료됐는지 */
+        public boolean isStalled() {
+            return stalled;
+        }
+
+        /** 종료 후 호출 → 마지막 샘플을 작업 누적치에 반영 */
+        @Override
+        public void close() {
+            if (!live.remove(this)) return;
+            sample(this);
+            usage.finish(this);
+        }
+
+        private synchronized void update(long cpu, long rss) {
+            if (cpu > cpuMs) cpuMs = cpu;
+            rssKb = rss;
+        }
+    }
+
+    /** 작업 1개 누적 사용량 */
+    private static final class TaskUsage {
+        final AtomicInteger processes = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger stalledKills = new AtomicInteger();
+        final AtomicLong finishedCpuMs = new AtomicLong();
+        final AtomicLong peakRssKb = new AtomicLong();
+        final Set<Supervised> active = ConcurrentHashMap.newKeySet();
+
+        void finish(Supervised s) {
+            if (!active.remove(s)) return;
+            running.decrementAndGet();
+            synchronized (s) {
+                finishedCpuMs.addAndGet(s.cpuMs);
+            }
+        }
+    }
+
+    /** 프로세스 감시 시작 (끝나면 close()) */
+    public Supervised register(String taskId, String label, Process process) {
+        TaskUsage usage = usages.computeIfAbsent(taskId, k -> new TaskUsage());
+        Supervised s = new Supervised(taskId, label, process, usage);
+        usage.processes.incrementAndGet();
+        usage.running.incrementAndGet();
+        usage.active.add(s);
+        live.add(s);
+        return s;
+    }
+
+    /**
+     * 작업별 사용량
+     * @return 감시한 적 없는 작업이면 null
+     */
+    public Map<String, Object> usage(String taskId) {
+        TaskUsage u = usages.get(taskId);
+        if (u == null) return null;
+
+        long cpuMs = u.finishedCpuMs.get();
+        long lastOutputAgoMs = -1;
+        long now = System.nanoTime();
+        for (Supervised s : u.active) {
+            synchronized (s) {
+                cpuMs += s.cpuMs;
+            }
+            long ago = TimeUnit.NANOSECONDS.toMillis(now - s.lastOutputNanos);
+            if (lastOutputAgoMs < 0 || ago < lastOutputAgoMs) lastOutputAgoMs = ago;
+        }
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("processes", u.processes.get());
+        m.put("running", u.running.get());
+        m.put("cpuMs", cpuMs);
+        m.put("peakRssMb", u.peakRssKb.get() / 1024);
+        m.put("lastOutputAgoMs", lastOutputAgoMs);
+        m.put("stalledKills", u.stalledKills.get());
+        return m;
+    }
+
+    /** 작업 정보 삭제 (작업 상태 만료 시) */
+    public void forget(String taskId) {
+        usages.remove(taskId);
+    }
+
+    // ==================================
+    // 트리 종료
+    // ==================================
+    /** 프로세스와 모든 자손 종료 (SIGTERM → 유예 → SIGKILL), 끝날 때까지 블록 */
+    public void killTree(Process process) {
+        killTree(process.toHandle());
+    }
+
+    public void killTree(ProcessHandle root) {
+        List<ProcessHandle> tree = tree(root);
+        tree.forEach(ProcessHandle::destroy);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(killGraceMs);
+        for (ProcessHandle h : tree) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0 && h.isAlive()) {
+                try {
+                    h.onExit().get(remaining, TimeUnit.NANOSECONDS);
+                } catch (Exception ignore) {}
+            }
+            if (h.isAlive()) h.destroyForcibly();
+        }
+    }
+
+    /** 유예 없이 바로 SIGKILL (시간 초과 kill 등, 블록하지 않음) */
+    public void killTreeNow(Process process) {
+        tree(process.toHandle()).forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /** 자손(깊은 것부터) + 본인 순서 → 부모가 먼저 죽어 자손이 init 으로 넘어가 목록에서 빠지기 전에 수집 */
+    private static List<ProcessHandle> tree(ProcessHandle root) {
+        List<ProcessHandle> tree = new ArrayList<>(root.descendants().toList());
+        Collections.reverse(tree);
+        tree.add(root);
+        return tree;
+    }
+
+    // ==================================
+    // 샘플링 / 정지 감시
+    // ==================================
+    private void sampleAll() {
+        long stallNanos = TimeUnit.SECONDS.toNanos(stallTimeoutSeconds);
+        for (Supervised s : live) {
+            try {
+                sample(s);
+                if (stallNanos > 0 && !s.stalled && s.process.isAlive()
+                        && System.nanoTime() - s.lastOutputNanos > stallNanos) {
+                    s.stalled = true;
+                    s.usage.stalledKills.incrementAndGet();
+                    log.warn("[{}] {}출력 없음 {}초 → 프로세스 트리 종료 (pid={})",
+                            s.taskId, s.label, stallTimeoutSeconds, s.process.pid());
+                    killTree(s.process);
+                }
+            } catch (Exception e) {
+                log.debug("프로세스 샘플링 오류 (pid={}): {}", s.process.pid(), e.getMessage());
+            }
+        }
+    }
+
+    private static void sample(Supervised s) {
+        ProcessHandle root = s.process.toHandle();
+        if (!root.isAlive()) return;
+
+        long cpuMs = cpuMs(root);
+        long rssKb = rssKb(root);
+        List<ProcessHandle> children = root.descendants().toList();
+        for (ProcessHandle h : children) {
+            cpuMs += cpuMs(h);
+            rssKb += rssKb(h);
+        }
+        s.update(cpuMs, rssKb);
+        s.usage.peakRssKb.accumulateAndGet(rssKb, Math::max);
+    }
+
+    private static long cpuMs(ProcessHandle h) {
+        return h.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+    }
+
+    /** /proc/<pid>/status 의 VmRSS (kB), 없으면 0 */
+    private static long rssKb(ProcessHandle h) {
+        Path status = Path.of("/proc", String.valueOf(h.pid()), "status");
+        if (!Files.isReadable(status)) return 0;
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    String v = line.substring(6).trim();
+                    int sp = v.indexOf(' ');
+                    return Long.parseLong(sp > 0 ? v.substring(0, sp) : v);
+                }
+            }
+        } catch (IOException | NumberFormatException ignore) {}
+        return 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+        for (Supervised s : live) {
+            if (s.process.isAlive()) killTree(s.process);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.mybaselinkV2.app.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * ProgressLineParser
+ * --------------------------------------------------------
+ * Python 출력 한 줄 → ProgressEvent (재사용 객체에 덮어씀)
+ *
+ * ✅ v1 JSON-lines (update_stock_listing.py)
+ *   {"v":1,"phase":"symbols","pct":42.5,"saved":1200,"total":2900,"level":"info","msg":"..."}
+ *   - pct 가 있으면 진행률 이벤트, 없으면 로그 이벤트
+ *   - 종목 1건 결과: "symbol":"005930","result":"ok|cached|empty|fail" (로그 이벤트에 포함)
+ *     저장 후 파일 현황: "last":"2025-10-27","rows":6000,"sha":"9f2c..." (매니페스트 갱신)
+ * ✅ 분석 스크립트 진행률
+ *   {"mode":"progress","progress_percent":40,"processed_symbols":10,"total_symbols":25,"message":"..."}
+ * ✅ 레거시 텍스트 (구버전 스크립트)
+ *   ... [PROGRESS] 42.5 종목 저장 1200/2900
+ *   ... [LOG] 메시지
+ *
+ * - 정규식/Matcher/Map 없이 JsonParser 토큰 + indexOf 로만 처리
+ * - 스레드 1개(출력 읽기 스레드)에서만 사용
+ * --------------------------------------------------------
+ */
+public final class ProgressLineParser {
+
+    public static final int PROTOCOL_VERSION = 1;
+
+    public enum Kind { NONE, PROGRESS, LOG, RESULT }
+
+    /** 파싱 결과 (한 줄마다 reset 후 재사용) */
+    public static final class ProgressEvent {
+        public Kind kind;
+        public int version;
+        public String phase;   // init / listing / symbols / done / error (레거시는 null)
+        public double pct;     // NaN = 없음
+        public int saved;      // -1 = 없음
+        public int total;      // -1 = 없음
+        public String level;   // info / warn / error
+        public String msg;
+        public String symbol;  // 종목 1건 결과일 때만
+        public String result;  // ok / cached / empty / fail
+        public String lastDate; // 파일의 마지막 일봉 날짜 (yyyy-MM-dd)
+        public int rows;        // 파일 행 수, -1 = 없음
+        public String checksum;
+
+        void reset() {
+            kind = Kind.NONE;
+            version = 0;
+            phase = null;
+            pct = Double.NaN;
+            saved = -1;
+            total = -1;
+            level = "info";
+            msg = null;
+            symbol = null;
+            result = null;
+            lastDate = null;
+            rows = -1;
+            checksum = null;
+        }
+
+        public boolean hasPct() { return !Double.isNaN(pct); }
+        public boolean hasCount() { return saved >= 0 && total > 0; }
+    }
+
+    private static final String LEGACY_PROGRESS = "[PROGRESS]";
+    private static final String LEGACY_LOG = "[LOG]";
+    private static final String LEGACY_COUNT = "종목 저장";
+
+    private final JsonFactory jsonFactory;
+
+    public ProgressLineParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * @return ev.kind != NONE 이면 인식한 줄
+     */
+    public boolean parse(String line, ProgressEvent ev) {
+        ev.reset();
+        if (line == null || line.isEmpty()) return false;
+
+        if (line.charAt(0) == '{') {
+            try {
+                parseJson(line, ev);
+            } catch (IOException e) {
+                ev.reset(); // 깨진 JSON → 레거시로 재시도
+            }
+            if (ev.kind != Kind.NONE) return true;
+        }
+        parseLegacy(line, ev);
+        return ev.kind != Kind.NONE;
+    }
+
+    // ==================================
+    // JSON (v1 / 분석 스크립트 progress)
+    // ==================================
+    private void parseJson(String line, ProgressEvent ev) throws IOException {
+        boolean analyzerProgress = false;
+        boolean resultLike = false;
+
+        try (JsonParser p = jsonFactory.createParser(line)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (field) {
+                    case "v" -> ev.version = p.getValueAsInt();
+                    case "phase" -> ev.phase = p.getValueAsString();
+                    case "pct", "progress_percent" -> {
+                        if (t.isNumeric()) ev.pct = p.getDoubleValue();
+                    }
+                    case "saved", "processed_symbols" -> ev.saved = p.getValueAsInt(-1);
+                    case "total", "total_symbols" -> ev.total = p.getValueAsInt(-1);
+                    case "level" -> ev.level = p.getValueAsString("info");
+                    case "msg", "message" -> ev.msg = p.getValueAsString();
+                    case "symbol" -> ev.symbol = p.getValueAsString();
+                    case "result" -> ev.result = p.getValueAsString();
+                    case "last" -> ev.lastDate = p.getValueAsString();
+                    case "rows" -> ev.rows = p.getValueAsInt(-1);
+                    case "sha" -> ev.checksum = p.getValueAsString();
+                    case "mode" -> analyzerProgress = "progress".equals(p.getValueAsString());
+                    case "status", "error" -> resultLike = true;
+                    default -> { }
+                }
+                // 값이 객체/배열이면 (예: "error": {...}) 통째로 건너뜀 → 안쪽 필드를 최상위로 읽지 않음
+                p.skipChildren();
+            }
+        }
+
+        if (ev.version >= PROTOCOL_VERSION || analyzerProgress) {
+            ev.kind = ev.hasPct() ? Kind.PROGRESS : Kind.LOG;
+            if (ev.msg == null) ev.msg = "";
+        } else if (resultLike) {
+            ev.kind = Kind.RESULT; // 마지막 요약/에러 JSON
+        }
+    }
+
+    // ==================================
+    // 레거시 텍스트
+    // ==================================
+    private void parseLegacy(String line, ProgressEvent ev) {
+        int i = line.indexOf(LEGACY_PROGRESS);
+        if (i >= 0) {
+            int from = skipSpaces(line, i + LEGACY_PROGRESS.length());
+            int to = from;
+            while (to < line.length() && (Character.isDigit(line.charAt(to)) || line.charAt(to) == '.')) to++;
+            if (to == from) return;
+            try {
+                ev.pct = Double.parseDouble(line.substring(from, to));
+            } catch (NumberFormatException e) {
+                return;
+            }
+            ev.msg = line.substring(skipSpaces(line, to)).trim();
+            ev.kind = Kind.PROGRESS;
+            parseLegacyCount(ev.msg, ev);
+            return;
+        }
+
+        i = line.indexOf(LEGACY_LOG);
+        if (i >= 0) {
+            ev.msg = line.substring(skipSpaces(line, i + LEGACY_LOG.length())).trim();
+            ev.kind = Kind.LOG;
+        }
+    }
+
+    /** "종목 저장 1200/2900" → saved/total */
+    private static void parseLegacyCount(String msg, ProgressEvent ev) {
+        int i = msg.indexOf(LEGACY_COUNT);
+        if (i < 0) return;
+        int p = skipSpaces(msg, i + LEGACY_COUNT.length());
+        int slash = msg.indexOf('/', p);
+        if (slash < 0) return;
+
+        int saved = readInt(msg, p, slash);
+        int totalFrom = skipSpaces(msg, slash + 1);
+        int totalTo = totalFrom;
+        while (totalTo < msg.length() && Character.isDigit(msg.charAt(totalTo))) totalTo++;
+        int total = readInt(msg, totalFrom, totalTo);
+        if (saved >= 0 && total >= 0) {
+            ev.saved = saved;
+            ev.total = total;
+        }
+    }
+
+    private static int readInt(String s, int from, int to) {
+        int n = 0, digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == ' ') continue;
+            if (c < '0' || c > '9') return -1;
+            n = n * 10 + (c - '0');
+            digits++;
+        }
+        return digits == 0 ? -1 : n;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && s.charAt(i) == ' ') i++;
+        return i;
+    }
+}
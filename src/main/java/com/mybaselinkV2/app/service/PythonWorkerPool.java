@@ -0,0 +1,378 @@
+package com.mybaselinkV2.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PythonWorkerPool
+ * --------------------------------------------------------
+ * 상주 Python 워커(worker_server.py) 풀
+ * - 워커는 처음 필요할 때 기동 (pandas 등 import 는 기동 시 1번)
+ *   → 기동 대기도 호출자 시간 한도 안에서만, 넘으면 TimeoutException 후 기동은 뒤에서 마저 진행 (준비되면 idle)
+ * - 요청/응답: stdin/stdout 한 줄 JSON
+ * - 요청 시간 초과 → 해당 워커(자식 프로세스 포함, ProcessSupervisor) 강제 종료 후 폐기 (다음 요청 때 새로 기동)
+ * - max-requests 처리 후 재기동 (메모리 누수/단편화 방지)
+ * - 주기적으로 유휴 워커에 ping → 응답 없으면 폐기
+ * --------------------------------------------------------
+ */
+@Component
+public class PythonWorkerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonWorkerPool.class);
+
+    /** 빈 워커 대기 단위 (사용 중 워커가 폐기되면 idle 로 돌아오지 않음 → 이 간격마다 빈 자리 다시 확인) */
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** 스크립트 실행 결과 (stdout = 스크립트가 print 한 내용) */
+    public record WorkerResponse(boolean ok, int exitCode, String stdout, String stderr, long elapsedMs) {}
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ProcessSupervisor supervisor;
+
+    @Value("${python.executable.path:}")
+    private String pythonExe;
+
+    @Value("${python.worker_server.path:}")
+    private String workerScriptPath;
+
+    @Value("${python.working.dir:}")
+    private String pythonWorkingDir;
+
+    @Value("${application.analysis.worker.size:2}")
+    private int poolSize;
+
+    @Value("${application.analysis.worker.max-requests:200}")
+    private int maxRequests;
+
+    @Value("${application.analysis.worker.request-timeout-seconds:60}")
+    private long requestTimeoutSeconds;
+
+    @Value("${application.analysis.worker.startup-timeout-seconds:60}")
+    private long startupTimeoutSeconds;
+
+    @Value("${application.analysis.worker.health-check-seconds:30}")
+    private long healthCheckSeconds;
+
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicLong requestIds = new AtomicLong();
+
+    // 통계
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    // 헬스체크가 응답을 기다리는 동안에도 시간 초과 kill 이 돌 수 있도록 2 스레드
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, r -> {
+        Thread t = new Thread(r, "PyWorkerPool");
+        t.setDaemon(true);
+        return t;
+    });
+    // 기동 대기 (ready 줄 읽기) 전용 → 호출자가 먼저 포기해도 기동은 계속, 동시 기동 수는 live(poolSize)로 제한
+    private final ExecutorService starter = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "PyWorkerStart");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean healthCheckScheduled = false;
+    private volatile boolean closed = false;
+
+    public PythonWorkerPool(ProcessSupervisor supervisor) {
+        this.supervisor = supervisor;
+    }
+
+    // ==================================
+    // 워커 1개
+    // ==================================
+    private static final class Worker {
+        final Process process;
+        final BufferedWriter in;
+        final BufferedReader out;
+        final long pid;
+        int requests;
+
+        Worker(Process process) {
+            this.process = process;
+            this.in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            this.pid = process.pid();
+        }
+
+        JsonNode call(ObjectMapper mapper, ObjectNode req) throws IOException {
+            in.write(mapper.writeValueAsString(req));
+            in.newLine();
+            in.flush();
+            String line = out.readLine();
+            if (line == null) throw new EOFException("Python 워커 종료됨 (pid=" + pid + ")");
+            JsonNode res = mapper.readTree(line);
+            // 이전 요청의 늦은 응답 등으로 어긋나면 이 워커는 더 쓰지 않음 (호출 측에서 폐기)
+            String id = req.path("id").asText();
+            if (!id.equals(res.path("id").asText(null))) {
+                throw new IOException("Python 워커 응답 id 불일치 (pid=" + pid + ", 요청 " + id
+                        + ", 응답 " + res.path("id").asText(null) + ")");
+            }
+            return res;
+        }
+
+        void destroy(ProcessSupervisor supervisor) {
+            try { in.close(); } catch (IOException ignore) {}
+            supervisor.killTreeNow(process);
+        }
+    }
+
+    /**
+     * 스크립트 실행 (python 폴더의 스크립트 main() 을 워커 안에서 호출)
+     * @param script 스크립트 파일명 (예: find_similar_full.py)
+     * @param args   argparse 인자
+     * @throws TimeoutException 빈 워커를 기다리다 또는 실행 중 시간 초과
+     */
+    public WorkerResponse execute(String script, List<String> args) throws IOException, InterruptedException, TimeoutException {
+        return execute(script, args, TimeUnit.SECONDS.toNanos(requestTimeoutSeconds));
+    }
+
+    /**
+     * 시간 한도 지정 실행 (ExecutionLane 이 대기 후 남은 시간을 넘겨줌)
+     * @param timeoutNanos 빈 워커 대기 + 실행 시간 한도 (request-timeout-seconds 를 넘지 않음)
+     */
+    public WorkerResponse execute(String script, List<String> args, long timeoutNanos)
+            throws IOException, InterruptedException, TimeoutException {
+        long limit = Math.min(timeoutNanos, TimeUnit.SECONDS.toNanos(requestTimeoutSeconds));
+        if (limit <= 0) throw new TimeoutException(script + " 실행 전 시간 한도 초과");
+        long deadline = System.nanoTime() + limit;
+
+        Worker w = borrow(limit);
+        long remaining = deadline - System.nanoTime();
+        ObjectNode req = mapper.createObjectNode();
+        req.put("id", "r" + requestIds.incrementAndGet());
+        req.put("script", script);
+        req.putPOJO("args", args);
+
+        // 시간 초과 시 프로세스 트리를 죽여 readLine 을 깨움 (패턴 스캔의 병렬 자식까지)
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        ScheduledFuture<?> killer = scheduler.schedule(() -> {
+            timedOut.set(true);
+            supervisor.killTreeNow(w.process);
+        }, Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        JsonNode res;
+        try {
+            res = w.call(mapper, req);
+        } catch (IOException e) {
+            discard(w);
+            if (timedOut.get()) {
+                timeouts.incrementAndGet();
+                throw new TimeoutException(script + " 실행 시간 초과 (" + TimeUnit.NANOSECONDS.toSeconds(limit) + "초)");
+            }
+            throw e;
+        } finally {
+            killer.cancel(false);
+        }
+
+        w.requests++;
+        served.incrementAndGet();
+        giveBack(w);
+
+        return new WorkerResponse(
+                res.path("ok").asBoolean(false),
+                res.path("exit").asInt(1),
+                res.path("stdout").asText(""),
+                res.path("stderr").asText(""),
+                res.path("elapsedMs").asLong());
+    }
+
+    /** 풀 통계 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", poolSize);
+        stats.put("live", live.get());
+        stats.put("idle", idle.size());
+        stats.put("started", started.get());
+        stats.put("recycled", recycled.get());
+        stats.put("discarded", discarded.get());
+        stats.put("served", served.get());
+        stats.put("timeouts", timeouts.get());
+        return stats;
+    }
+
+    // ==================================
+    // 대여 / 반납
+    // ==================================
+    private Worker borrow(long timeoutNanos) throws IOException, InterruptedException, TimeoutException {
+        if (closed) throw new IllegalStateException("Python 워커 풀이 종료되었습니다.");
+        ensureHealthCheck();
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        while (true) {
+            Worker w = idle.poll();
+            if (w != null) {
+                if (w.process.isAlive()) return w;
+                discard(w);
+                continue;
+            }
+
+            // 여유가 있으면 새 워커 기동 (남은 시간만큼만 기다림)
+            int n = live.get();
+            if (n < poolSize && live.compareAndSet(n, n + 1)) {
+                return start(deadline - System.nanoTime());
+            }
+
+            // 반납을 기다리되 짧게 나눠서 → 시간 초과/종료/재기동으로 live 가 줄면 다음 바퀴에 새 워커 기동
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) throw new TimeoutException("사용 가능한 Python 워커가 없습니다.");
+            w = idle.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+            if (w == null) continue;
+            if (w.process.isAlive()) return w;
+            discard(w);
+        }
+    }
+
+    private void giveBack(Worker w) {
+        if (closed || !w.process.isAlive()) {
+            discard(w);
+        } else if (w.requests >= maxRequests) {
+            recycled.incrementAndGet();
+            log.info("🔁 Python 워커 재기동 (pid={}, 처리 {}건)", w.pid, w.requests);
+            discard(w);
+        } else {
+            idle.offer(w);
+        }
+    }
+
+    private void discard(Worker w) {
+        w.destroy(supervisor);
+        live.decrementAndGet();
+        discarded.incrementAndGet();
+    }
+
+    /**
+     * 워커 기동 (호출 전 live 1 증가, 기동 실패 시 여기서 되돌림)
+     * - ready 대기는 min(startup-timeout-seconds, 호출자 남은 시간)
+     * - 호출자 시간 초과 → TimeoutException, 기동은 startup-timeout 까지 뒤에서 계속 → 준비되면 idle 로 반납
+     */
+    private Worker start(long timeoutNanos) throws IOException, InterruptedException, TimeoutException {
+        List<String> cmd = List.of(pythonExe, "-u", workerScriptPath);
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        if (pythonWorkingDir != null && !pythonWorkingDir.isBlank()) pb.directory(new File(pythonWorkingDir));
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        pb.environment().put("PYTHONUNBUFFERED", "1");
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+
+        Worker w;
+        try {
+            w = new Worker(pb.start());
+        } catch (IOException | RuntimeException e) {
+            live.decrementAndGet();
+            throw e;
+        }
+
+        CompletableFuture<Worker> warm;
+        try {
+            warm = CompletableFuture.supplyAsync(() -> awaitReady(w), starter);
+        } catch (RejectedExecutionException e) { // 종료 중
+            w.destroy(supervisor);
+            live.decrementAndGet();
+            throw e;
+        }
+        boolean handedOver = false;
+        try {
+            Worker ready = warm.get(Math.min(timeoutNanos, TimeUnit.SECONDS.toNanos(startupTimeoutSeconds)), TimeUnit.NANOSECONDS);
+            handedOver = true;
+            return ready;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Python 워커 기동 대기 시간 초과 (기동은 계속 진행, pid=" + w.pid + ")");
+        } catch (ExecutionException e) {
+            handedOver = true; // 실패 처리는 awaitReady 에서 끝남
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) throw io.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException("Python 워커 기동 실패", cause);
+        } finally {
+            // 기다리다 포기 (시간 초과/인터럽트) → 준비되면 다음 요청이 쓰도록 idle 로
+            if (!handedOver) {
+                warm.thenAccept(this::giveBack);
+            }
+        }
+    }
+
+    /** ready 줄 대기 (starter 스레드) - 실패 시 프로세스 정리 + live 되돌림 */
+    private Worker awaitReady(Worker w) {
+        ScheduledFuture<?> killer = null;
+        try {
+            killer = scheduler.schedule(() -> supervisor.killTreeNow(w.process), startupTimeoutSeconds, TimeUnit.SECONDS);
+            String ready = w.out.readLine();
+            if (ready == null || !mapper.readTree(ready).path("ready").asBoolean(false)) {
+                throw new IOException("Python 워커 기동 실패: " + ready);
+            }
+        } catch (IOException | RuntimeException e) {
+            w.destroy(supervisor);
+            live.decrementAndGet();
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        } finally {
+            if (killer != null) killer.cancel(false);
+        }
+
+        started.incrementAndGet();
+        log.info("🐍 Python 워커 기동 (pid={})", w.pid);
+        return w;
+    }
+
+    // ==================================
+    // 헬스체크
+    // ==================================
+    private void ensureHealthCheck() {
+        if (healthCheckScheduled) return;
+        synchronized (this) {
+            if (healthCheckScheduled) return;
+            scheduler.scheduleWithFixedDelay(this::healthCheck, healthCheckSeconds, healthCheckSeconds, TimeUnit.SECONDS);
+            healthCheckScheduled = true;
+        }
+    }
+
+    /** 유휴 워커에 ping (사용 중인 워커는 건드리지 않음) */
+    private void healthCheck() {
+        for (int i = idle.size(); i > 0; i--) {
+            Worker w = idle.poll();
+            if (w == null) return;
+
+            ScheduledFuture<?> killer = scheduler.schedule(() -> supervisor.killTreeNow(w.process), 5, TimeUnit.SECONDS);
+            try {
+                ObjectNode ping = mapper.createObjectNode();
+                ping.put("id", "ping");
+                ping.put("op", "ping");
+                if (w.process.isAlive() && w.call(mapper, ping).path("pong").asBoolean(false)) {
+                    idle.offer(w);
+                    continue;
+                }
+            } catch (IOException e) {
+                log.warn("Python 워커 헬스체크 실패 (pid={}): {}", w.pid, e.getMessage());
+            } finally {
+                killer.cancel(false);
+            }
+            discard(w);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdownNow();
+        starter.shutdownNow();
+        Worker w;
+        while ((w = idle.poll()) != null) discard(w);
+    }
+}
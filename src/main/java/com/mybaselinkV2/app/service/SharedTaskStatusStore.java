@@ -0,0 +1,278 @@
+package com.mybaselinkV2.app.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybaselinkV2.app.entity.TaskSnapshotEntity;
+import com.mybaselinkV2.app.repository.TaskSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * SharedTaskStatusStore
+ * --------------------------------------------------------
+ * 노드 간 작업 상태 공유 (DB task_snapshots, 기존 JPA 데이터소스 사용)
+ *
+ * ✅ 쓰기 (write-behind)
+ *   - 상태/로그가 바뀌면 markDirty(taskId) → 집합에 넣기만 함 (Python 읽기 스레드에서도 가벼움)
+ *   - flush-ms 마다 바뀐 작업들을 한 트랜잭션으로 저장 → 로그가 초당 수천 줄이어도 작업당 주기 1회
+ *   - 행에는 상태 + 결과 + 최근 로그 log-tail 줄 + lastSeq
+ *   - 다른 노드가 더 최근 상태(statusUpdatedAt)를 써 두었으면 덮어쓰지 않음 (예: 대기 등록 노드 vs 실행 노드)
+ * ✅ 읽기 (read-through)
+ *   - read(taskId) 는 read-cache-ms 동안 로컬 캐시 (없음도 캐시) → 폴링/SSE 가 많아도 노드당 작업별 주기 1회 조회
+ * ✅ 정리: 끝난 작업 행은 retention-minutes 후 삭제 (각 노드가 가끔 실행, 중복 실행 무해)
+ * --------------------------------------------------------
+ */
+@Service
+public class SharedTaskStatusStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedTaskStatusStore.class);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<TaskLogBuffer.LogLine>> LOGS_TYPE = new TypeReference<>() {};
+    private static final long PURGE_INTERVAL_MS = 5 * 60 * 1000L;
+
+    /** 로컬 상태 → 저장할 내용 (StockBatchService 가 등록) */
+    public record Snapshot(String status, Map<String, Object> result, String errorMessage,
+                           List<TaskLogBuffer.LogLine> logs, long lastSeq, Instant statusUpdatedAt, boolean finished) {}
+
+    /** 다른 노드가 저장한 상태 */
+    public record Remote(String status, Map<String, Object> result, String errorMessage,
+                         List<TaskLogBuffer.LogLine> logs, long lastSeq, String node,
+                         Instant statusUpdatedAt, Instant writtenAt) {}
+
+    private final TaskSnapshotRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final String nodeId;
+    private final Duration retention;
+
+    @Value("${application.batch.task.shared.log-tail:200}")
+    private int logTail;
+
+    private volatile Function<String, Optional<Snapshot>> source = id -> Optional.empty();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Cache<String, Optional<Remote>> readCache;
+    private volatile long lastPurge = System.currentTimeMillis();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong dbReads = new AtomicLong();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "TaskStatusFlush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SharedTaskStatusStore(TaskSnapshotRepository repository, ObjectMapper objectMapper,
+                                 PlatformTransactionManager txManager, LeaseService leaseService,
+                                 @Value("${application.batch.task.shared.flush-ms:1000}") long flushMs,
+                                 @Value("${application.batch.task.shared.read-cache-ms:1000}") long readCacheMs,
+                                 @Value("${application.batch.task.retention-minutes:60}") long retentionMinutes) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = leaseService.nodeId();
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.readCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(1, readCacheMs)))
+                .maximumSize(10_000)
+                .build();
+
+        long period = Math.max(100, flushMs);
+        flusher.scheduleWithFixedDelay(this::flushSafely, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** 저장할 내용을 만드는 함수 등록 (로컬에 없으면 빈 Optional) */
+    public void setSource(Function<String, Optional<Snapshot>> source) {
+        this.source = source;
+    }
+
+    /** 상태/로그 변경 알림 → 다음 flush 때 저장 */
+    public void markDirty(String taskId) {
+        if (taskId != null) dirty.add(taskId);
+    }
+
+    /**
+     * 다른 노드가 저장한 상태 (read-cache-ms 동안 로컬 캐시)
+     * @return 저장된 적 없거나 정리됐으면 빈 Optional
+     */
+    public Optional<Remote> read(String taskId) {
+        return readCache.get(taskId, id -> {
+            dbReads.incrementAndGet();
+            try {
+                return repository.findById(id).map(this::toRemote);
+            } catch (Exception e) {
+                log.warn("[{}] 공유 작업 상태 조회 실패: {}", id, e.getMessage());
+                return Optional.empty();
+            }
+        });
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /** 저장하는 최근 로그 줄 수 (source 는 이만큼만 읽으면 됨) */
+    public int logTail() {
+        return logTail;
+    }
+
+    // ==================================
+    // flush
+    // ==================================
+    private void flushSafely() {
+        try {
+            flush();
+            purgeIfDue();
+        } catch (Exception e) {
+            log.warn("공유 작업 상태 저장 실패 (다음 주기 재시도): {}", e.getMessage());
+        }
+    }
+
+    /** 바뀐 작업들을 한 트랜잭션으로 저장 (실패 시 다음 주기에 다시 시도) */
+    void flush() {
+        if (dirty.isEmpty()) return;
+        List<String> ids = new ArrayList<>(dirty);
+        ids.forEach(dirty::remove);
+
+        Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        for (String id : ids) {
+            source.apply(id).ifPresent(s -> snapshots.put(id, s));
+        }
+        if (snapshots.isEmpty()) return;
+
+        try {
+            tx.executeWithoutResult(st -> {
+                Map<String, TaskSnapshotEntity> existing = new LinkedHashMap<>();
+                repository.findAllById(snapshots.keySet()).forEach(e -> existing.put(e.getTaskId(), e));
+
+                Instant now = Instant.now();
+                List<TaskSnapshotEntity> toSave = new ArrayList<>(snapshots.size());
+                for (Map.Entry<String, Snapshot> en : snapshots.entrySet()) {
+                    Snapshot s = en.getValue();
+                    TaskSnapshotEntity row = existing.get(en.getKey());
+                    if (row != null && !nodeId.equals(row.getNode())
+                            && row.getStatusUpdatedAt().isAfter(s.statusUpdatedAt())) {
+                        skipped.incrementAndGet(); // 다른 노드의 더 최근 상태 유지
+                        continue;
+                    }
+                    if (row == null) row = new TaskSnapshotEntity(en.getKey());
+                    fill(row, s, now);
+                    toSave.add(row);
+                }
+                repository.saveAll(toSave);
+                written.addAndGet(toSave.size());
+            });
+            flushes.incrementAndGet();
+        } catch (RuntimeException e) {
+            dirty.addAll(snapshots.keySet());
+            throw e;
+        }
+    }
+
+    private void fill(TaskSnapshotEntity row, Snapshot s, Instant now) {
+        List<TaskLogBuffer.LogLine> logs = s.logs();
+        if (logs.size() > logTail) logs = logs.subList(logs.size() - logTail, logs.size());
+        row.setStatus(s.status());
+        row.setResultJson(writeJson(s.result()));
+        row.setErrorMessage(truncate(s.errorMessage(), 1000));
+        row.setLogsJson(writeJson(logs));
+        row.setLastSeq(s.lastSeq());
+        row.setNode(nodeId);
+        row.setStatusUpdatedAt(s.statusUpdatedAt());
+        row.setWrittenAt(now);
+        row.setFinished(s.finished());
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MS) return;
+        lastPurge = now;
+        long n = repository.deleteAllByFinishedTrueAndWrittenAtBefore(Instant.now().minus(retention));
+        if (n > 0) log.info("🧹 공유 작업 상태 {}건 정리", n);
+    }
+
+    /** 통계: flush 횟수 / 저장 행 / 건너뜀 / DB 조회 / 대기 */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("node", nodeId);
+        m.put("flushes", flushes.get());
+        m.put("written", written.get());
+        m.put("skipped", skipped.get());
+        m.put("dbReads", dbReads.get());
+        m.put("pending", dirty.size());
+        return m;
+    }
+
+    // ==================================
+    // JSON 변환
+    // ==================================
+    private Remote toRemote(TaskSnapshotEntity e) {
+        Map<String, Object> result = e.getResultJson() == null ? null : readJson(e.getResultJson(), MAP_TYPE);
+        List<TaskLogBuffer.LogLine> logs = e.getLogsJson() == null ? null : readJson(e.getLogsJson(), LOGS_TYPE);
+        return new Remote(e.getStatus(),
+                result != null ? result : Collections.emptyMap(), e.getErrorMessage(),
+                logs != null ? logs : List.of(), e.getLastSeq(), e.getNode(),
+                e.getStatusUpdatedAt(), e.getWrittenAt());
+    }
+
+    private String writeJson(Object value) {
+        if (value == null) return null;
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            log.warn("작업 상태 직렬화 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            log.warn("작업 상태 역직렬화 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+
+    /** 종료 시 남은 변경 저장 → 다른 노드가 마지막 상태를 볼 수 있음 */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("종료 시 공유 작업 상태 저장 실패: {}", e.getMessage());
+        }
+    }
+}
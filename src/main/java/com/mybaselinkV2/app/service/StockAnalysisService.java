@@ -0,0 +1,82 @@
+package com.mybaselinkV2.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StockAnalysisService
+ * --------------------------------------------------------
+ * 분석 스크립트(find_similar_full.py / find_chart_patterns.py) 실행
+ * - 매번 python 을 새로 띄우지 않고 PythonWorkerPool 의 상주 워커 사용
+ * - 스크립트 stdout(JSON) 을 그대로 JsonNode 로 반환
+ * - 비교 차트는 interactive 차선, 전체 스캔(유사 종목/패턴)은 analysis 차선 (ExecutionLanes)
+ * --------------------------------------------------------
+ */
+@Service
+public class StockAnalysisService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAnalysisService.class);
+
+    private static final String SIMILAR_SCRIPT = "find_similar_full.py";
+    private static final String PATTERN_SCRIPT = "find_chart_patterns.py";
+
+    private final PythonWorkerPool workerPool;
+    private final ObjectMapper mapper;
+    private final ExecutionLanes lanes;
+
+    public StockAnalysisService(PythonWorkerPool workerPool, ObjectMapper mapper, ExecutionLanes lanes) {
+        this.workerPool = workerPool;
+        this.mapper = mapper;
+        this.lanes = lanes;
+    }
+
+    /** 유사 종목 (compareSymbol 지정 시 두 종목 비교 차트 이미지) */
+    public JsonNode findSimilar(String baseSymbol, String startDate, String endDate,
+                                int nSimilar, String compareSymbol) throws Exception {
+        List<String> args = new ArrayList<>(List.of("--base_symbol", baseSymbol, "--n_similar", String.valueOf(nSimilar)));
+        if (startDate != null && !startDate.isBlank()) args.addAll(List.of("--start_date", startDate));
+        if (endDate != null && !endDate.isBlank()) args.addAll(List.of("--end_date", endDate));
+        boolean chart = compareSymbol != null && !compareSymbol.isBlank();
+        if (chart) args.addAll(List.of("--compare_symbol", compareSymbol));
+        return run(chart ? lanes.interactive() : lanes.analysis(), SIMILAR_SCRIPT, args);
+    }
+
+    /** 차트 패턴 스캔 */
+    public JsonNode findPatterns(String start, String end, String pattern,
+                                 int topN, int workers) throws Exception {
+        return run(lanes.analysis(), PATTERN_SCRIPT, List.of(
+                "--start", start, "--end", end, "--pattern", pattern,
+                "--topN", String.valueOf(topN), "--workers", String.valueOf(workers)));
+    }
+
+    private JsonNode run(ExecutionLane lane, String script, List<String> args) throws Exception {
+        PythonWorkerPool.WorkerResponse res = lane.call(remaining -> workerPool.execute(script, args, remaining));
+        log.debug("[{}][{}] {}ms exit={}", lane.name(), script, res.elapsedMs(), res.exitCode());
+
+        if (!res.ok()) {
+            throw new IllegalStateException(errorMessage(res.stderr(), res.exitCode()));
+        }
+        return mapper.readTree(res.stdout());
+    }
+
+    /** 스크립트 error_exit() 의 {"error": "..."} 를 우선 사용 */
+    private String errorMessage(String stderr, int exitCode) {
+        String[] lines = stderr.strip().split("\n");
+        for (int i = lines.length - 1; i >= 0; i--) {
+            String line = lines[i].strip();
+            if (!line.startsWith("{")) continue;
+            try {
+                JsonNode err = mapper.readTree(line).path("error");
+                if (!err.isMissingNode()) return err.asText();
+            } catch (IOException ignore) {}
+        }
+        return "분석 스크립트 오류 (exit " + exitCode + ")";
+    }
+}
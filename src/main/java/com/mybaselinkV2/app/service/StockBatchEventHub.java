@@ -0,0 +1,257 @@
+package com.mybaselinkV2.app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * StockBatchEventHub
+ * --------------------------------------------------------
+ * 배치 진행상황 SSE 푸시
+ * - 작업에 변화가 생기면 markDirty → FLUSH_INTERVAL_MS 마다 한 번에 전송 (burst 병합)
+ * - 구독자마다 마지막 로그 seq 를 기억해 새 로그만 전송
+ * - 이벤트 id = 로그 seq → 재연결 시 Last-Event-ID 부터 이어받기
+ * - HEARTBEAT_INTERVAL_MS 마다 주석 이벤트로 연결 유지/끊긴 연결 정리
+ * - 전송(emitter.send)은 BatchSseSend 스레드에서 → 느린 브라우저 1개가 다른 스트림을 막지 않음
+ *   구독자당 동시 전송 1개, SEND_TIMEOUT_MS 넘게 끝나지 않으면 그 구독자만 정리
+ * - 다른 노드에서 실행 중인 작업(isRemote)은 알림이 오지 않으므로 REMOTE_POLL_MS 마다 다시 읽음
+ * --------------------------------------------------------
+ */
+@Component
+public class StockBatchEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(StockBatchEventHub.class);
+
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long REMOTE_POLL_MS = 1_000;
+    private static final long SEND_TIMEOUT_MS = 10_000;
+    private static final long NOT_FOUND_GRACE_MS = 5_000; // 작업 상태가 게시되기 전(다른 노드 등록 직후 등) 구독해도 바로 끊지 않음
+    private static final Set<String> FINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED", "NOT_FOUND");
+
+    /** 구독자 1명 */
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final LongFunction<Map<String, Object>> reader; // afterSeq → 상태 + 새 로그
+        final long subscribedAt = System.currentTimeMillis();
+        final AtomicBoolean sending = new AtomicBoolean(false);
+        volatile long sendStartedAt;
+        volatile long lastSeq;   // 마지막으로 보낸 로그 seq (= 이벤트 id, 다음 afterSeq)
+
+        Subscriber(SseEmitter emitter, LongFunction<Map<String, Object>> reader, long lastSeq) {
+            this.emitter = emitter;
+            this.reader = reader;
+            this.lastSeq = lastSeq;
+        }
+    }
+
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> dirtyTasks = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile Predicate<String> isRemote = taskId -> false;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "BatchSse");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 구독자별 전송 (블록될 수 있는 소켓 쓰기)
+    private final ExecutorService sender = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "BatchSseSend");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public StockBatchEventHub() {
+        scheduler.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pollRemote, REMOTE_POLL_MS, REMOTE_POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** 모든 변경 알림을 함께 받음 (구독자 유무와 무관, 공유 상태 저장 등) */
+    public void addChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
+    }
+
+    /** 이 노드가 실행하지 않는 작업 판별 (주기적으로 다시 읽을 대상) */
+    public void setRemoteCheck(Predicate<String> isRemote) {
+        this.isRemote = isRemote;
+    }
+
+    /**
+     * 구독 등록
+     * @param lastEventId 재연결 시 브라우저가 보낸 Last-Event-ID (없으면 0)
+     * @param reader      afterSeq 를 받아 상태 본문(status/result/logs/lastSeq)을 만드는 함수
+     */
+    public SseEmitter subscribe(String taskId, long lastEventId, LongFunction<Map<String, Object>> reader) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber sub = new Subscriber(emitter, reader, lastEventId);
+
+        subscribers.computeIfAbsent(taskId, k -> new CopyOnWriteArrayList<>()).add(sub);
+        emitter.onCompletion(() -> remove(taskId, sub));
+        emitter.onTimeout(() -> remove(taskId, sub));
+        emitter.onError(e -> remove(taskId, sub));
+
+        markDirty(taskId); // 첫 상태는 다음 flush 때 전송
+        return emitter;
+    }
+
+    /** 작업 상태/로그 변경 알림 (Python 읽기 스레드에서 호출, 매우 가벼움) */
+    public void markDirty(String taskId) {
+        if (subscribers.containsKey(taskId)) dirtyTasks.add(taskId);
+        for (Consumer<String> l : changeListeners) l.accept(taskId);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(CopyOnWriteArrayList::size).sum();
+    }
+
+    private void flush() {
+        if (dirtyTasks.isEmpty()) return;
+        List<String> retry = new ArrayList<>();
+        for (String taskId : dirtyTasks) {
+            dirtyTasks.remove(taskId);
+            CopyOnWriteArrayList<Subscriber> subs = subscribers.get(taskId);
+            if (subs == null) continue;
+            for (Subscriber sub : subs) {
+                if (!dispatch(taskId, sub, () -> {
+                    if (!send(taskId, sub)) dirtyTasks.add(taskId);
+                })) {
+                    retry.add(taskId); // 이전 전송이 아직 진행 중 → 다음 flush 때 (그 사이 변경은 한 번에)
+                }
+            }
+        }
+        dirtyTasks.addAll(retry);
+    }
+
+    /**
+     * 구독자 1명에게 전송 작업 넘김 (구독자당 동시 1개)
+     * @return false 면 이전 전송이 아직 진행 중
+     */
+    private boolean dispatch(String taskId, Subscriber sub, Runnable task) {
+        if (!sub.sending.compareAndSet(false, true)) {
+            if (System.currentTimeMillis() - sub.sendStartedAt > SEND_TIMEOUT_MS) {
+                log.warn("[{}] SSE 전송 {}ms 초과 → 구독 정리", taskId, SEND_TIMEOUT_MS);
+                remove(taskId, sub);
+                sender.execute(() -> {
+                    try { sub.emitter.complete(); } catch (Exception ignore) {}
+                });
+            }
+            return false;
+        }
+        sub.sendStartedAt = System.currentTimeMillis();
+        try {
+            sender.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    sub.sending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sub.sending.set(false); // 종료 중
+        }
+        return true;
+    }
+
+    /** @return false 면 아직 보낼 상태가 없음 → 다음 flush 때 재시도 */
+    private boolean send(String taskId, Subscriber sub) {
+        try {
+            Map<String, Object> body = sub.reader.apply(sub.lastSeq);
+            if ("NOT_FOUND".equals(body.get("status"))
+                    && System.currentTimeMillis() - sub.subscribedAt < NOT_FOUND_GRACE_MS) {
+                return false;
+            }
+            // id / 다음 afterSeq 는 실제로 보낸 마지막 줄 기준 (본문 lastSeq 를 믿지 않음)
+            long lastSeq = lastSentSeq(body, sub.lastSeq);
+
+            sub.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(lastSeq))
+                    .name("status")
+                    .data(body, MediaType.APPLICATION_JSON));
+            sub.lastSeq = lastSeq;
+
+            if (FINAL_STATUSES.contains(String.valueOf(body.get("status")))) {
+                sub.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // 브라우저가 이미 끊음
+            remove(taskId, sub);
+        } catch (Exception e) {
+            log.warn("[{}] SSE 전송 오류: {}", taskId, e.getMessage());
+            remove(taskId, sub);
+        }
+        return true;
+    }
+
+    /** 본문 logs 의 마지막 줄 seq, 보낸 줄이 없으면 그대로 */
+    private static long lastSentSeq(Map<String, Object> body, long current) {
+        if (body.get("logs") instanceof List<?> logs && !logs.isEmpty()
+                && logs.get(logs.size() - 1) instanceof TaskLogBuffer.LogLine last) {
+            return Math.max(current, last.seq());
+        }
+        return current;
+    }
+
+    private void pollRemote() {
+        for (String taskId : subscribers.keySet()) {
+            try {
+                if (isRemote.test(taskId)) dirtyTasks.add(taskId);
+            } catch (Exception e) {
+                log.debug("[{}] 원격 작업 확인 오류: {}", taskId, e.getMessage());
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.forEach((taskId, subs) -> {
+            for (Subscriber sub : subs) {
+                // 전송 중이면 이미 살아 있는 연결 → 건너뜀 (막힌 연결은 dispatch 가 정리)
+                dispatch(taskId, sub, () -> {
+                    try {
+                        sub.emitter.send(SseEmitter.event().comment("hb"));
+                    } catch (IOException | IllegalStateException e) {
+                        remove(taskId, sub);
+                    }
+                });
+            }
+        });
+    }
+
+    private void remove(String taskId, Subscriber sub) {
+        subscribers.computeIfPresent(taskId, (k, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(subs -> subs.forEach(s -> s.emitter.complete()));
+        subscribers.clear();
+    }
+}
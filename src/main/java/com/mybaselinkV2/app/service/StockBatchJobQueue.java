@@ -0,0 +1,461 @@
+package com.mybaselinkV2.app.service;
+
+import com.mybaselinkV2.app.entity.StockBatchJobEntity;
+import com.mybaselinkV2.app.repository.StockBatchJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StockBatchJobQueue
+ * --------------------------------------------------------
+ * 종목 일괄 업데이트 작업 큐 (DB: stock_batch_jobs)
+ * - 요청은 409 대신 큐에 넣고 taskId 반환 → 상태/스트림 API 로 따라감
+ * - 같은 옵션(force/workers/shards/resume)의 실행 중 작업 → 그 작업에 연결 (attach)
+ * - 같은 옵션의 대기 작업 → 하나로 합침 (요청자 수 증가, 우선순위는 큰 쪽)
+ *   → 대기 작업은 queue_key 유니크 인덱스로 DB 에서 1건 보장 (노드가 달라도 중복 등록 없음)
+ * - 실행 순서: 우선순위 높은 것 → 먼저 들어온 것, 동시에 1개만 실행 (BatchDispatcher 스레드)
+ * - 여러 노드: 리스(RUNNER_LEASE)를 가진 노드 1개만 대기열을 실행, 나머지는 등록만
+ *   → 보유 노드가 죽으면 ttl 후 다른 노드가 poll() 에서 리스를 가져가 이어서 실행
+ * - 대기 중 작업도 TaskStatus(QUEUED, 대기 순번)로 게시 → 기존 상태/SSE 조회 그대로 사용
+ * - 리스를 새로 얻었을 때 RUNNING 으로 남은 작업은 resume=true 로 다시 대기열에 넣음 (체크포인트 이어하기)
+ * - 다른 노드가 실행해 끝낸 작업 → 이 노드에 게시해 둔 QUEUED 상태를 settleQueued() 에서 최종 상태로 교체
+ * - 실행 중 작업 취소: 작업 행에 취소 요청만 기록 → 실행 노드가 watchCancel() 에서 확인 후 프로세스 종료
+ *   (실행하지 않는 노드는 최종 상태를 쓰지 않음 → 실행 노드의 상태가 그대로 공유됨)
+ * --------------------------------------------------------
+ */
+@Service
+public class StockBatchJobQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(StockBatchJobQueue.class);
+
+    /** 대기열 실행권 (클러스터 전체에서 1개 노드) */
+    public static final String RUNNER_LEASE = "stock-batch-runner";
+
+    /** 다른 노드와 등록이 겹쳤을 때 다시 합쳐 보는 횟수 */
+    private static final int SUBMIT_ATTEMPTS = 3;
+
+    /** submit 결과 (attached: 실행 중/대기 중 작업에 연결됨, position: 대기 순번, 실행 중이면 0) */
+    public record Ticket(String taskId, String status, boolean attached, int position) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("taskId", taskId);
+            m.put("status", status);
+            m.put("attached", attached);
+            m.put("position", position);
+            return m;
+        }
+    }
+
+    private final StockBatchJobRepository repository;
+    private final StockBatchService batchService;
+    private final TaskStatusService taskStatusService;
+    private final StockBatchEventHub eventHub;
+    private final ExecutionLane batchLane;
+    private final LeaseService leaseService;
+
+    @Value("${application.cluster.lease.ttl-seconds:30}")
+    private long leaseTtlSeconds;
+
+    // 지금 실행 중인 작업 (리스 상실 시 중단 대상)
+    private volatile String currentTaskId;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    // 대기열 변경 직렬화 (DB 조회/저장 중 → synchronized 대신 ReentrantLock: 가상 스레드에서 호출돼도 캐리어 고정 없음)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${application.batch.queue.history-days:7}")
+    private int historyDays;
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "BatchDispatcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public StockBatchJobQueue(StockBatchJobRepository repository, StockBatchService batchService,
+                              TaskStatusService taskStatusService, StockBatchEventHub eventHub,
+                              ExecutionLanes lanes, LeaseService leaseService) {
+        this.repository = repository;
+        this.batchService = batchService;
+        this.taskStatusService = taskStatusService;
+        this.eventHub = eventHub;
+        this.batchLane = lanes.batch();
+        this.leaseService = leaseService;
+    }
+
+    /** 기동 시: 대기 작업 상태 게시 후 실행 시도 (RUNNING 으로 남은 작업은 리스를 얻은 뒤 재등록) */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        lock.lock();
+        try {
+            List<StockBatchJobEntity> queued = repository.findByStatusOrderByPriorityDescIdAsc("QUEUED");
+            if (!queued.isEmpty()) publishPositions(queued);
+            if (!queued.isEmpty() || !repository.findByStatusIn(List.of("RUNNING")).isEmpty()) kick();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 주기 확인: 다른 노드에 등록된 작업 / 죽은 노드가 남긴 작업을 이 노드가 가져갈 수 있는지
+     * - 리스 보유 노드가 살아 있으면 drain() 이 리스를 못 얻고 바로 끝남
+     */
+    @Scheduled(fixedDelayString = "${application.cluster.lease.poll-ms:15000}",
+               initialDelayString = "${application.cluster.lease.poll-ms:15000}")
+    public void poll() {
+        if (draining.get()) return;
+        if (!repository.findByStatusIn(List.of("QUEUED", "RUNNING")).isEmpty()) kick();
+    }
+
+    /**
+     * 이 노드가 게시해 둔 대기(QUEUED) 상태 정리
+     * - 다른 노드가 실행해 끝낸 작업 → 최종 상태로 교체 (끝난 상태는 retention 후 만료)
+     * - 작업 기록이 정리돼 없음 → 제거
+     */
+    @Scheduled(fixedDelayString = "${application.cluster.lease.poll-ms:15000}",
+               initialDelayString = "${application.cluster.lease.poll-ms:15000}")
+    public void settleQueued() {
+        List<String> queued = new ArrayList<>();
+        taskStatusService.getAllTasks().forEach((id, s) -> {
+            if ("QUEUED".equals(s.getStatus())) queued.add(id);
+        });
+        if (queued.isEmpty()) return;
+
+        Map<String, StockBatchJobEntity> jobs = new HashMap<>();
+        repository.findByTaskIdIn(queued).forEach(j -> jobs.put(j.getTaskId(), j));
+        for (String taskId : queued) {
+            StockBatchJobEntity job = jobs.get(taskId);
+            if (job == null) {
+                taskStatusService.removeTask(taskId);
+            } else if (job.getFinishedAt() != null) {
+                batchService.settleFinished(taskId, job.getStatus(), job.getFinishedAt());
+            }
+        }
+    }
+
+    /**
+     * 작업 요청
+     * - 합침/등록은 DB 에서 판정 (노드별 lock 은 같은 노드 안의 순서만 맞춤)
+     * - 다른 노드가 먼저 같은 옵션을 등록 → 유니크 위반 → 그 작업에 다시 합침
+     * @throws IllegalStateException 대기열이 가득 참
+     */
+    public Ticket submit(boolean force, int workers, int shards, boolean resume,
+                         int priority, String requestedBy) {
+        String key = StockBatchJobEntity.queueKey(force, workers, shards, resume);
+        lock.lock();
+        try {
+            for (int attempt = 0; attempt < SUBMIT_ATTEMPTS; attempt++) {
+                // 1) 실행 중인 같은 작업 → 연결
+                for (StockBatchJobEntity running : repository.findByStatusIn(List.of("RUNNING"))) {
+                    if (running.sameOptions(force, workers, shards, resume)
+                            && repository.join(running.getId(), "RUNNING", priority) == 1) {
+                        log.info("[{}] 실행 중 작업에 연결: {}", running.getTaskId(), requestedBy);
+                        return new Ticket(running.getTaskId(), "RUNNING", true, 0);
+                    }
+                }
+
+                // 2) 대기 중인 같은 작업 → 합침 (그 사이 실행이 시작됐으면 처음부터 다시)
+                Optional<StockBatchJobEntity> same = repository.findByQueueKey(key);
+                if (same.isPresent()) {
+                    String taskId = same.get().getTaskId();
+                    if (repository.join(same.get().getId(), "QUEUED", priority) == 0) continue;
+                    List<StockBatchJobEntity> queued = repository.findByStatusOrderByPriorityDescIdAsc("QUEUED");
+                    publishPositions(queued);
+                    int position = positionOf(queued, taskId);
+                    log.info("[{}] 대기 작업에 합침: {} (요청자 {}명)", taskId, requestedBy,
+                            position > 0 ? queued.get(position - 1).getRequesters() : "?");
+                    return new Ticket(taskId, "QUEUED", true, position);
+                }
+
+                // 3) 새 작업
+                List<StockBatchJobEntity> queued = repository.findByStatusOrderByPriorityDescIdAsc("QUEUED");
+                if (queued.size() >= batchLane.maxQueue()) {
+                    throw new IllegalStateException("업데이트 대기열이 가득 찼습니다 (" + batchLane.maxQueue() + "건). 잠시 후 다시 시도하세요.");
+                }
+                String taskId = UUID.randomUUID().toString();
+                StockBatchJobEntity job = new StockBatchJobEntity(taskId, force, workers, shards, resume, priority, requestedBy);
+                job.setQueueKey(key);
+                try {
+                    repository.save(job);
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("같은 옵션의 대기 작업을 다른 노드가 먼저 등록 → 그 작업에 합침 ({})", key);
+                    continue;
+                }
+                queued = repository.findByStatusOrderByPriorityDescIdAsc("QUEUED");
+                publishPositions(queued);
+                log.info("📊 [{}] 업데이트 대기열 등록: {} (force={}, workers={}, 우선순위 {})",
+                        taskId, requestedBy, force, workers, priority);
+                kick();
+                return new Ticket(taskId, "QUEUED", false, positionOf(queued, taskId));
+            }
+            throw new IllegalStateException("다른 요청과 등록이 계속 겹칩니다. 잠시 후 다시 시도하세요.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 작업 취소 (어느 노드에서 받아도 됨)
+     * - 대기 중 → 바로 CANCELLED
+     * - 실행 중 → 작업 행에 취소 요청 기록, 이 노드가 실행 중이면 바로 종료 / 아니면 실행 노드가 watchCancel() 에서 종료
+     * @return CANCELLED / CANCEL_REQUESTED / 이미 끝난 작업이면 그 상태, 없는 작업이면 빈 Optional
+     */
+    public Optional<String> cancel(String taskId) {
+        if (cancelQueued(taskId)) return Optional.of("CANCELLED");
+        if (repository.requestCancel(taskId) == 0) {
+            return repository.findByTaskId(taskId).map(StockBatchJobEntity::getStatus);
+        }
+        log.info("[{}] 실행 중 작업 취소 요청 기록", taskId);
+        if (taskId.equals(currentTaskId) && batchService.cancelTask(taskId, "사용자 취소")) {
+            return Optional.of("CANCELLED");
+        }
+        return Optional.of("CANCEL_REQUESTED");
+    }
+
+    /**
+     * 대기 중 작업 취소
+     * @return 대기 중이던 작업이면 true
+     */
+    public boolean cancelQueued(String taskId) {
+        lock.lock();
+        try {
+            Optional<StockBatchJobEntity> found = repository.findByTaskId(taskId);
+            if (found.isEmpty() || !"QUEUED".equals(found.get().getStatus())) return false;
+
+            markCancelled(found.get());
+            publishPositions(repository.findByStatusOrderByPriorityDescIdAsc("QUEUED"));
+            log.info("[{}] 대기 작업 취소", taskId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 실행 중 작업의 취소 요청 확인 (다른 노드가 받은 취소도 실행 노드가 종료)
+     */
+    @Scheduled(fixedDelayString = "${application.cluster.cancel-poll-ms:2000}",
+               initialDelayString = "${application.cluster.cancel-poll-ms:2000}")
+    public void watchCancel() {
+        String t = currentTaskId;
+        if (t == null) return;
+        TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(t);
+        if (s != null && s.isFinished()) return;
+        repository.findByTaskId(t)
+                .filter(StockBatchJobEntity::isCancelRequested)
+                .ifPresent(job -> batchService.cancelTask(t, "사용자 취소"));
+    }
+
+    /** 큐 현황 (실행 중 + 대기 순서) */
+    public Map<String, Object> getQueue() {
+        lock.lock();
+        try {
+            List<Map<String, Object>> running = new ArrayList<>();
+            for (StockBatchJobEntity job : repository.findByStatusIn(List.of("RUNNING"))) {
+                running.add(view(job, 0));
+            }
+            List<StockBatchJobEntity> queued = repository.findByStatusOrderByPriorityDescIdAsc("QUEUED");
+            List<Map<String, Object>> waiting = new ArrayList<>(queued.size());
+            for (int i = 0; i < queued.size(); i++) {
+                waiting.add(view(queued.get(i), i + 1));
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("depth", queued.size());
+            body.put("maxDepth", batchLane.maxQueue());
+            body.put("running", running);
+            body.put("queued", waiting);
+            body.put("node", leaseService.nodeId());
+            body.put("runner", leaseService.describe(RUNNER_LEASE));
+            return body;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================================
+    // 실행 (BatchDispatcher 스레드)
+    // ==================================
+    private void kick() {
+        dispatcher.execute(this::drain);
+    }
+
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) return;
+        try {
+            Optional<LeaseService.Lease> acquired = leaseService.tryAcquire(RUNNER_LEASE, Duration.ofSeconds(leaseTtlSeconds));
+            if (acquired.isEmpty()) {
+                log.debug("대기열 실행권을 다른 노드가 보유 중 → 그 노드가 실행");
+                return;
+            }
+            try (LeaseService.Lease lease = acquired.get()) {
+                // 실행권을 다른 노드가 가져감 → 같은 parquet 을 두 노드가 쓰지 않도록 즉시 중단
+                lease.onLost(() -> {
+                    String t = currentTaskId;
+                    if (t != null) batchService.cancelTask(t, "실행권 상실 (다른 노드가 인계)");
+                });
+                requeueOrphans();
+
+                StockBatchJobEntity job;
+                while (lease.isHeld() && (job = next()) != null) {
+                    String taskId = job.getTaskId();
+                    final StockBatchJobEntity run = job;
+                    currentTaskId = taskId;
+                    try {
+                        // batch 차선: 시간 한도(timeout-minutes) + 차선 통계
+                        batchLane.call(remaining -> {
+                            batchService.runUpdate(taskId, run.isForce(), run.getWorkers(), run.getShards(),
+                                    run.isResume(), Duration.ofNanos(remaining), lease);
+                            return null;
+                        });
+                    } catch (Exception e) {
+                        log.error("[{}] 업데이트 실행 오류", taskId, e);
+                    } finally {
+                        currentTaskId = null;
+                    }
+                    // 펜싱: 리스를 잃었으면 작업 기록은 새 보유 노드가 정리 (RUNNING → 이어하기)
+                    if (lease.isCurrent()) finish(taskId);
+                    else log.warn("[{}] 실행권 상실 → 작업 기록을 갱신하지 않음", taskId);
+                }
+            }
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /** 리스를 새로 얻은 시점에 RUNNING 인 작업 = 이전 보유 노드가 끝내지 못한 작업 → 이어하기로 재등록 */
+    private void requeueOrphans() {
+        lock.lock();
+        try {
+            List<StockBatchJobEntity> orphans = repository.findByStatusIn(List.of("RUNNING"));
+            for (StockBatchJobEntity job : orphans) {
+                if (job.isCancelRequested()) {
+                    markCancelled(job); // 취소 요청 후 실행 노드가 죽음 → 이어하지 않음
+                    continue;
+                }
+                log.warn("[{}] 이전 실행 노드가 끝내지 못한 작업 → 이어하기로 재등록", job.getTaskId());
+                job.setStatus("QUEUED");
+                job.setResume(true);
+                job.setStartedAt(null);
+                job.setQueueKey(StockBatchJobEntity.queueKey(job.isForce(), job.getWorkers(), job.getShards(), true));
+                try {
+                    repository.save(job);
+                } catch (DataIntegrityViolationException e) {
+                    // 같은 옵션의 대기 작업이 이미 있음 → 이 작업은 합침 대상 없이 그대로 재등록
+                    job.setQueueKey(null);
+                    repository.save(job);
+                }
+            }
+            if (!orphans.isEmpty()) publishPositions(repository.findByStatusOrderByPriorityDescIdAsc("QUEUED"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 다음 대기 작업을 RUNNING 으로 (없으면 null, 취소 요청된 작업은 건너뜀) */
+    private StockBatchJobEntity next() {
+        lock.lock();
+        try {
+            while (true) {
+                List<StockBatchJobEntity> queued = repository.findByStatusOrderByPriorityDescIdAsc("QUEUED");
+                while (!queued.isEmpty() && queued.get(0).isCancelRequested()) {
+                    markCancelled(queued.get(0));
+                    queued = queued.subList(1, queued.size());
+                }
+                if (queued.isEmpty()) return null;
+
+                // 대기 상태를 벗어남 → 같은 옵션의 새 요청은 새 대기 작업으로 (그 사이 취소됐으면 다음 작업)
+                StockBatchJobEntity job = queued.get(0);
+                if (repository.start(job.getId(), Instant.now()) == 0) continue;
+                publishPositions(queued.subList(1, queued.size()));
+                return job;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 시작 전 취소: 작업 행 + 상태 CANCELLED */
+    private void markCancelled(StockBatchJobEntity job) {
+        job.setStatus("CANCELLED");
+        job.setFinishedAt(Instant.now());
+        job.setQueueKey(null);
+        repository.save(job);
+        taskStatusService.setTaskStatus(job.getTaskId(), new TaskStatusService.TaskStatus("CANCELLED",
+                Map.of("message", "대기 중 취소됨", "progress", 0), "사용자 취소"));
+        eventHub.markDirty(job.getTaskId());
+    }
+
+    private void finish(String taskId) {
+        lock.lock();
+        try {
+            repository.findByTaskId(taskId).ifPresent(job -> {
+                TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(taskId);
+                job.setStatus(s != null && s.isFinished() ? s.getStatus() : "FAILED");
+                job.setFinishedAt(Instant.now());
+                repository.save(job);
+            });
+            long purged = repository.deleteAllByFinishedAtBefore(Instant.now().minus(Duration.ofDays(historyDays)));
+            if (purged > 0) log.info("🧹 지난 업데이트 작업 기록 {}건 삭제", purged);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 대기 작업마다 TaskStatus(QUEUED, 순번) 게시 → 상태/SSE 로 순번 변화 전달 */
+    private void publishPositions(List<StockBatchJobEntity> queued) {
+        for (int i = 0; i < queued.size(); i++) {
+            StockBatchJobEntity job = queued.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("progress", 0);
+            result.put("position", i + 1);
+            result.put("message", "⏳ 대기 중 (" + (i + 1) + "번째)");
+            result.put("requesters", job.getRequesters());
+            taskStatusService.setTaskStatus(job.getTaskId(), new TaskStatusService.TaskStatus("QUEUED", result, null));
+            eventHub.markDirty(job.getTaskId());
+        }
+    }
+
+    private static int positionOf(List<StockBatchJobEntity> queued, String taskId) {
+        for (int i = 0; i < queued.size(); i++) {
+            if (queued.get(i).getTaskId().equals(taskId)) return i + 1;
+        }
+        return 0;
+    }
+
+    private static Map<String, Object> view(StockBatchJobEntity job, int position) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("taskId", job.getTaskId());
+        if (position > 0) m.put("position", position);
+        m.put("force", job.isForce());
+        m.put("workers", job.getWorkers());
+        m.put("shards", job.getShards());
+        m.put("resume", job.isResume());
+        m.put("priority", job.getPriority());
+        m.put("requestedBy", job.getRequestedBy());
+        m.put("requesters", job.getRequesters());
+        m.put("createdAt", job.getCreatedAt());
+        if (job.getStartedAt() != null) m.put("startedAt", job.getStartedAt());
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
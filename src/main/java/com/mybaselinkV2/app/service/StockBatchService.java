@@ -3,18 +3,22 @@ package com.mybaselinkV2.app.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Predicate;
 
 @Service
 public class StockBatchService {
@@ -22,6 +26,15 @@ public class StockBatchService {
     private static final Logger log = LoggerFactory.getLogger(StockBatchService.class);
     private final ObjectMapper mapper = new ObjectMapper();
     private final TaskStatusService taskStatusService;
+    private final StockListService stockListService;
+    private final StockBatchEventHub eventHub;
+    private final StockDataManifest manifest;
+    private final KrxTradingCalendar calendar;
+
+    // 샤드 대기 / 출력 읽기 (AsyncConfig.processIoExecutor, 가상 스레드 모드면 작업마다 가상 스레드)
+    private final ExecutorService processIo;
+    private final ProcessSupervisor supervisor;
+    private final SharedTaskStatusStore sharedStore;
 
     // Python 실행 환경
     // ✅ @Value 어노테이션으로 프로퍼티 값 주입
@@ -34,236 +47,720 @@ public class StockBatchService {
     @Value("${python.working.dir:}")
     private String pythonWorkingDir;
 
-    // 단일 선점
+    // 체크포인트 폴더 (비어 있으면 working.dir/stock/checkpoint)
+    @Value("${python.stock.checkpoint.dir:}")
+    private String checkpointDir;
+
+    // 단일 실행 보장 (요청 순서/합치기는 StockBatchJobQueue 담당)
     private final AtomicBoolean activeLock = new AtomicBoolean(false);
-    private final ConcurrentMap<String, Process> runningProcesses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<Process>> runningProcesses = new ConcurrentHashMap<>();
 
-    // 로그 버퍼
-    private final ConcurrentMap<String, List<LogLine>> taskLogs = new ConcurrentHashMap<>();
+    // 로그 버퍼 (작업별 링버퍼)
+    private final ConcurrentMap<String, TaskLogBuffer> taskLogs = new ConcurrentHashMap<>();
     private static final int MAX_LOG_LINES = 5000;
 
-    // 진행 상태
-    private final ConcurrentMap<String, ProgressState> progressStates = new ConcurrentHashMap<>();
+    // 진행 상태 (읽기 스레드가 제자리 갱신, 조회는 게시된 View)
+    private final ConcurrentMap<String, TaskProgress> progressStates = new ConcurrentHashMap<>();
+
+    // 진행 View 게시 최소 간격
+    @Value("${application.batch.progress.publish-interval-ms:250}")
+    private long progressPublishIntervalMs;
+
+    // 샤드 실행 (0 = CPU 수), 프로세스당 예상 메모리, 샤드별 재시도 횟수
+    @Value("${application.batch.shard.max:0}")
+    private int maxShards;
+
+    @Value("${application.batch.shard.memory-mb-per-process:400}")
+    private long shardMemoryMb;
 
-    public StockBatchService(TaskStatusService taskStatusService) {
+    // 샤드에 쓸 메모리 예산 (MB, 0 = 자동: /proc/meminfo MemAvailable → 없으면 JVM 이 보는 free)
+    @Value("${application.batch.shard.memory-budget-mb:0}")
+    private long shardMemoryBudgetMb;
+
+    @Value("${application.batch.shard.retries:1}")
+    private int shardRetries;
+
+    // 배치 Python 프로세스 CPU 우선순위 (nice, 0 = 그대로, Windows 는 무시) → 차트/분석 응답 우선
+    @Value("${application.lanes.batch.nice:10}")
+    private int batchNice;
+
+    public StockBatchService(TaskStatusService taskStatusService, StockListService stockListService,
+                             StockBatchEventHub eventHub, StockDataManifest manifest, KrxTradingCalendar calendar,
+                             @Qualifier("processIoExecutor") ExecutorService processIo, ProcessSupervisor supervisor,
+                             SharedTaskStatusStore sharedStore) {
         this.taskStatusService = taskStatusService;
+        this.stockListService = stockListService;
+        this.eventHub = eventHub;
+        this.manifest = manifest;
+        this.calendar = calendar;
+        this.processIo = processIo;
+        this.supervisor = supervisor;
+        this.sharedStore = sharedStore;
+
+        // ✅ 작업 상태가 만료/제거되면 로그·진행 상태도 함께 정리
+        taskStatusService.addRemovalListener(taskId -> {
+            taskLogs.remove(taskId);
+            progressStates.remove(taskId);
+            supervisor.forget(taskId);
+        });
+
+        // ✅ 상태/로그 변경은 공유 저장소에도 (주기마다 묶어서 저장) → 다른 노드도 조회 가능
+        sharedStore.setSource(this::snapshotOf);
+        eventHub.addChangeListener(sharedStore::markDirty);
+        // 이 노드가 실행하지 않는 작업의 SSE 구독자는 공유 상태를 주기적으로 다시 읽음
+        eventHub.setRemoteCheck(taskId -> !progressStates.containsKey(taskId));
     }
 
-    private static final class ProgressState {
-        volatile double krxPct = 0.0; // 0~100
-        volatile int dataSaved = 0;
-        volatile int dataTotal = 0;
+    /**
+     * 전체 종목 갱신 (끝날 때까지 블록, StockBatchJobQueue 의 BatchDispatcher 스레드에서 호출)
+     * @param resume true 면 체크포인트에 남은(미완료/실패) 종목만 실행, 체크포인트가 없으면 전체 실행
+     * @param timeout 목록 + 전체 샤드 합계 시간 한도 (batch 차선 timeout-minutes)
+     * @param lease   대기열 실행권 (펜싱: 체크포인트 생성·삭제 / 매니페스트 저장 직전에 아직 내 것인지 확인, null = 확인 안 함)
+     */
+    public void runUpdate(String taskId, boolean force, int workers, int shards, boolean resume, Duration timeout,
+                          LeaseService.Lease lease) {
+        // ✅ 큐가 한 번에 하나만 넘기지만, 다른 경로로 호출돼도 동시 실행은 막음
+        if (!activeLock.compareAndSet(false, true)) {
+            throw new IllegalStateException("이미 업데이트가 실행 중입니다.");
+        }
+
+        Path shardDir = null;
+        BatchCheckpoint checkpoint = null;
+        try {
+            taskLogs.put(taskId, new TaskLogBuffer(MAX_LOG_LINES));
+            TaskProgress progress = new TaskProgress(progressPublishIntervalMs, "업데이트 시작 중...");
+            progressStates.put(taskId, progress);
+            runningProcesses.put(taskId, new CopyOnWriteArrayList<>());
+
+            // 진행 중에는 상태를 다시 쓰지 않음 → 조회 시 progress.view() 사용
+            setStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", progress.view().toMap(), null));
+
+            long deadline = System.nanoTime() + timeout.toNanos();
+            // 다른 노드가 마지막으로 갱신했을 수 있으므로 파일 기준으로 다시 읽음
+            manifest.reloadIfChanged();
+
+            List<StockListing> rows;
+            if (resume) checkpoint = BatchCheckpoint.resume(checkpointPath(), taskId);
+
+            if (checkpoint != null) {
+                // ------------------------------------------------------------
+                // 1️⃣ 이어하기: 현재 종목 목록 - 체크포인트 완료 종목
+                // ------------------------------------------------------------
+                force = checkpoint.isForce();
+                List<StockListing> all = stockListService.getSnapshot().getRows();
+                rows = new ArrayList<>();
+                int retryFailed = 0;
+                for (StockListing r : all) {
+                    if (checkpoint.isDone(r.code())) continue;
+                    if (checkpoint.isFailed(r.code())) retryFailed++;
+                    rows.add(r);
+                }
+                int skipped = all.size() - rows.size();
+                progress.resumeFrom(skipped, retryFailed, rows.size() - retryFailed);
+                appendLog(taskId, "↩️ 이어하기: 완료 " + skipped + "종목 건너뜀, 실패 재시도 " + retryFailed
+                        + ", 신규 " + (rows.size() - retryFailed) + " (force=" + force + ")");
+
+                if (rows.isEmpty()) {
+                    if (lease == null || lease.isCurrent()) checkpoint.delete();
+                    setCompleted(taskId);
+                    return;
+                }
+            } else {
+                if (resume) appendLog(taskId, "체크포인트가 없어 처음부터 실행합니다.");
+
+                // ------------------------------------------------------------
+                // 1️⃣ KRX 종목 목록 (stock_listing.json) 갱신
+                // ------------------------------------------------------------
+                List<String> listingCmd = updateCommand(workers, force);
+                listingCmd.add("--listing-only");
+                int exit = runPython(taskId, listingCmd, deadline, progress::updateListing, "", null);
+                if (isCancelled(taskId)) return;
+                if (exit == EXIT_TIMEOUT) {
+                    setFailed(taskId, "Python 실행 시간 초과");
+                    return;
+                }
+                if (exit != 0) {
+                    setFailed(taskId, "KRX 종목 목록 갱신 실패 (" + exit + ")");
+                    return;
+                }
+
+                rows = stockListService.reload().getRows();
+                if (rows.isEmpty()) {
+                    setFailed(taskId, "KRX 종목 목록이 비어 있습니다.");
+                    return;
+                }
+                // 새 체크포인트는 기존 파일을 비움 → 인계받은 노드의 이어하기 기록을 지우지 않도록 펜싱
+                if (lease != null && !lease.isCurrent()) {
+                    throw new IllegalStateException("실행권 상실 → 체크포인트를 새로 만들지 않음");
+                }
+                checkpoint = BatchCheckpoint.create(checkpointPath(), taskId, force);
+            }
+
+            // ------------------------------------------------------------
+            // 2️⃣ 매니페스트 기준 작업 목록 (최신 종목 제외, 나머지는 fromDate 부터)
+            // ------------------------------------------------------------
+            LocalDate expected = calendar.expectedLastBarDate();
+            List<StockDataManifest.WorkItem> work = manifest.workList(rows, expected, force);
+            int upToDate = rows.size() - work.size();
+            long delta = work.stream().filter(w -> w.fromDate() != null).count();
+            appendLog(taskId, "📒 기준 일봉 " + expected + ": 최신 " + upToDate + "종목 제외, 증분 " + delta
+                    + ", 전체 " + (work.size() - delta));
+
+            if (work.isEmpty()) {
+                if (checkpoint.failedCount() == 0 && (lease == null || lease.isCurrent())) checkpoint.delete();
+                setCompleted(taskId);
+                return;
+            }
+
+            // ------------------------------------------------------------
+            // 3️⃣ 작업 목록을 K개 샤드로 나눠 K개 프로세스 동시 실행
+            // ------------------------------------------------------------
+            int k = shardCount(shards, work.size());
+            int perShardWorkers = Math.max(1, (int) Math.ceil((double) workers / k));
+            shardDir = Files.createTempDirectory("stock-shards-");
+            List<Path> shardFiles = writeShardFiles(shardDir, work, k);
+
+            int[] sizes = new int[k];
+            for (int i = 0; i < work.size(); i++) sizes[i % k]++;
+            progress.startShards(sizes);
+            eventHub.markDirty(taskId);
+            appendLog(taskId, "샤드 " + k + "개 × 워커 " + perShardWorkers + " 로 " + work.size() + "종목 갱신 시작");
+            log.info("[{}] 샤드 {}개 (CPU {}, 워커/샤드 {})", taskId, k, Runtime.getRuntime().availableProcessors(), perShardWorkers);
+
+            // 샤드 스레드는 프로세스 종료만 기다림 → 공용 I/O 실행기 사용 (동시 수 = k)
+            List<Future<Boolean>> results = new ArrayList<>(k);
+            final boolean runForce = force;
+            final BatchCheckpoint cp = checkpoint;
+            // 종목 1건 결과 → 체크포인트 + 매니페스트
+            Predicate<ProgressLineParser.ProgressEvent> onSymbol = ev -> {
+                recordSymbol(taskId, cp, ev);
+                manifest.record(ev, expected);
+                return progress.failedSymbols(cp.failedCount());
+            };
+            try {
+                for (int i = 0; i < k; i++) {
+                    final int shard = i;
+                    final Path file = shardFiles.get(i);
+                    results.add(processIo.submit(() ->
+                            runShard(taskId, progress, shard, file, perShardWorkers, runForce, deadline, cp, onSymbol)));
+                }
+                int failedShards = 0;
+                for (Future<Boolean> f : results) {
+                    if (!f.get()) failedShards++;
+                }
+
+                // 체크포인트는 전 종목 성공일 때만 삭제 → 그 외에는 resume=true 로 이어하기
+                if (isCancelled(taskId)) return;
+                if (System.nanoTime() - deadline > 0) {
+                    setFailed(taskId, "Python 실행 시간 초과 (이어하기 가능)");
+                } else if (failedShards > 0) {
+                    setFailed(taskId, "샤드 " + failedShards + "/" + k + "개 실패 (이어하기 가능)");
+                } else if (cp.failedCount() > 0) {
+                    appendLog(taskId, "⚠️ 실패 " + cp.failedCount() + "종목 → 이어하기로 재시도할 수 있습니다.");
+                    setCompleted(taskId);
+                } else {
+                    if (lease == null || lease.isCurrent()) cp.delete();
+                    setCompleted(taskId);
+                }
+            } finally {
+                // 예외/중단 시 남은 샤드 중단 (프로세스는 아래 finally 에서 종료)
+                results.forEach(f -> f.cancel(true));
+            }
+
+        } catch (Exception e) {
+            log.error("[{}] StockBatch 실행 중 오류", taskId, e);
+            setFailed(taskId, e.getMessage());
+        } finally {
+            List<Process> procs = runningProcesses.remove(taskId);
+            if (procs != null) {
+                for (Process p : procs) {
+                    if (p.isAlive()) {
+                        try { supervisor.killTree(p); } catch (Exception ignore) {}
+                    }
+                }
+            }
+            deleteQuietly(shardDir);
+            if (checkpoint != null) {
+                try { checkpoint.close(); } catch (IOException ignore) {}
+            }
+            if (lease == null || lease.isCurrent()) {
+                manifest.saveIfDirty();
+            } else {
+                // 실행권을 넘겨받은 노드의 기록을 덮어쓰지 않음 → 다음 실행 때 파일에서 다시 읽음
+                log.warn("[{}] 실행권 상실 → 매니페스트 저장 생략", taskId);
+                manifest.discardChanges();
+            }
+            activeLock.set(false);
+            log.info("[{}] 🔓 Lock 해제 완료", taskId);
+        }
     }
 
-    @Async
-    public void startUpdate(String taskId, boolean force, int workers) {
-        // ✅ 선점 실패는 곧바로 예외 → 컨트롤러에서 409로 보냄
-        if (!activeLock.compareAndSet(false, true)) {
-            throw new IllegalStateException("다른 사용자가 업데이트 중입니다. 잠시 후 다시 시도하세요.");
+    /**
+     * 샤드 1개 실행 (비정상 종료 시 shard.retries 만큼 재시도)
+     * - 재시도 전 샤드 파일을 체크포인트에 아직 완료로 없는 종목만 남기도록 다시 씀 → 받은 종목을 다시 받지 않음
+     */
+    private boolean runShard(String taskId, TaskProgress progress, int shard, Path file,
+                             int workers, boolean force, long deadline, BatchCheckpoint cp,
+                             Predicate<ProgressLineParser.ProgressEvent> onSymbol) {
+        String label = "[S" + (shard + 1) + "] ";
+        for (int attempt = 1; attempt <= shardRetries + 1; attempt++) {
+            if (isCancelled(taskId) || System.nanoTime() - deadline > 0) break;
+
+            if (attempt > 1) {
+                try {
+                    int left = pruneShardFile(file, cp);
+                    if (left == 0) {
+                        progress.shardStatus(shard, "DONE", attempt - 1);
+                        eventHub.markDirty(taskId);
+                        return true;
+                    }
+                    appendLog(taskId, label + "↩️ 재시도: 남은 " + left + "종목만 실행");
+                } catch (IOException e) {
+                    log.warn("[{}] {}샤드 파일 정리 실패, 전체 재실행: {}", taskId, label, e.getMessage());
+                }
+            }
+
+            progress.shardStatus(shard, attempt == 1 ? "RUNNING" : "RETRYING", attempt);
+            eventHub.markDirty(taskId);
+
+            List<String> cmd = updateCommand(workers, force);
+            cmd.add("--symbols-file");
+            cmd.add(file.toString());
+            int exit;
+            try {
+                exit = runPython(taskId, cmd, deadline, ev -> progress.updateShard(shard, ev), label, onSymbol);
+            } catch (IOException | InterruptedException e) {
+                log.warn("[{}] {}실행 오류: {}", taskId, label, e.getMessage());
+                exit = -1;
+            }
+            if (exit == 0) {
+                progress.shardStatus(shard, "DONE", attempt);
+                eventHub.markDirty(taskId);
+                return true;
+            }
+            if (isCancelled(taskId)) break;
+            appendLog(taskId, label + "⚠️ 비정상 종료 (" + (exit == EXIT_TIMEOUT ? "시간 초과" : exit) + "), 시도 " + attempt);
         }
+        progress.shardStatus(shard, "FAILED", shardRetries + 1);
+        eventHub.markDirty(taskId);
+        return false;
+    }
 
-        Process process = null;
+    /** update_stock_listing.py 공통 인자 */
+    private List<String> updateCommand(int workers, boolean force) {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(pythonExe);
+        cmd.add("-u"); // 무버퍼
+        cmd.add(stockUpdateScriptPath);
+        cmd.add("--workers");
+        cmd.add(String.valueOf(workers));
+        if (force) cmd.add("--force");
+        return cmd;
+    }
+
+    private static final int EXIT_TIMEOUT = -2;
+
+    /**
+     * Python 1회 실행 + 출력 실시간 처리
+     * @param onProgress 진행 이벤트 반영 (새 View 를 게시했으면 true)
+     * @param logLabel   로그 앞에 붙일 샤드 표시
+     * @param onSymbol   종목 1건 결과 반영 (목록 단계는 null, 새 View 를 게시했으면 true)
+     * @return 종료 코드 (시간 초과는 EXIT_TIMEOUT)
+     */
+    private int runPython(String taskId, List<String> cmd, long deadline,
+                          Predicate<ProgressLineParser.ProgressEvent> onProgress,
+                          String logLabel, Predicate<ProgressLineParser.ProgressEvent> onSymbol)
+            throws IOException, InterruptedException {
+        log.info("[{}] Python 실행: {}", taskId, cmd);
+
+        ProcessBuilder pb = new ProcessBuilder(withNice(cmd));
+        pb.directory(new File(pythonWorkingDir));
+        pb.redirectErrorStream(true);
+        pb.environment().put("PYTHONUNBUFFERED", "1");
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+
+        Process process = pb.start();
+        List<Process> procs = runningProcesses.get(taskId);
+        if (procs != null) procs.add(process);
+        // 출력 정지 감시 + CPU/RSS 샘플링 (ProcessSupervisor)
+        ProcessSupervisor.Supervised supervised = supervisor.register(taskId, logLabel, process);
+
+        // ✅ 실시간 읽기 (공용 I/O 실행기, 프로세스마다 새 풀을 만들지 않음)
+        Future<?> reading = null;
         try {
-            taskLogs.put(taskId, new CopyOnWriteArrayList<>());
-            ProgressState state = new ProgressState();
-            progressStates.put(taskId, state);
-
-            Map<String, Object> first = new HashMap<>();
-            first.put("progress", 0);
-            first.put("message", "업데이트 시작 중...");
-            first.put("krxPct", state.krxPct);
-            first.put("dataSaved", state.dataSaved);
-            first.put("dataTotal", state.dataTotal);
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", first, null));
-
-            // Python 명령어
-            List<String> cmd = new ArrayList<>();
-            cmd.add(pythonExe);
-            cmd.add("-u"); // 무버퍼
-            cmd.add(stockUpdateScriptPath);
-            cmd.add("--workers");
-            cmd.add(String.valueOf(workers));
-            if (force) cmd.add("--force");
-
-            log.info("[{}] Python 실행: {}", taskId, cmd);
-
-            ProcessBuilder pb = new ProcessBuilder(cmd);
-            pb.directory(new File(pythonWorkingDir));
-            pb.redirectErrorStream(true);
-            pb.environment().put("PYTHONUNBUFFERED", "1");
-            pb.environment().put("PYTHONIOENCODING", "utf-8");
-
-            process = pb.start();
-            runningProcesses.put(taskId, process);
-
-            Pattern pProg = Pattern.compile("\\[PROGRESS\\]\\s*([0-9]+(?:\\.[0-9]+)?)\\s*(.*)");
-            Pattern pLog  = Pattern.compile("\\[LOG\\]\\s*(.*)");
-            Pattern pCnt  = Pattern.compile("종목\\s*저장\\s*(\\d+)\\s*/\\s*(\\d+)");
-
-            // ✅ 실시간 읽기 스레드
-            final Process pRef = process;
-            ExecutorService ioPool = Executors.newSingleThreadExecutor();
-            ioPool.submit(() -> {
+            reading = processIo.submit(() -> {
+                // ✅ JSON-lines(v1) / 분석 스크립트 progress / 레거시 [PROGRESS]·[LOG] 모두 처리
+                ProgressLineParser parser = new ProgressLineParser(mapper.getFactory());
+                ProgressLineParser.ProgressEvent ev = new ProgressLineParser.ProgressEvent();
+                TaskProgress progress = progressOf(taskId);
+
                 try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(pRef.getInputStream(), StandardCharsets.UTF_8))) {
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
                     String line;
                     while ((line = reader.readLine()) != null) {
+                        supervised.touch();
                         final String L = line.trim();
-                        log.info("[PYTHON][{}] {}", taskId, L);
-
-                        Matcher mLog = pLog.matcher(L);
-                        if (mLog.find()) {
-                            appendLog(taskId, mLog.group(1));
-                        }
-
-                        Matcher mProg = pProg.matcher(L);
-                        if (mProg.find()) {
-                            double pct = Double.parseDouble(mProg.group(1));
-                            String msg = mProg.group(2);
-
-                            // KRX 단계 캐치
-                            if (msg.contains("KRX") && msg.contains("다운로드")) {
-                                state.krxPct = Math.max(state.krxPct, 30.0);
-                            } else if (msg.contains("KRX") && (msg.contains("로드됨") || msg.contains("저장 완료") || msg.contains("완료"))) {
-                                state.krxPct = 100.0;
+                        log.info("[PYTHON][{}] {}{}", taskId, logLabel, L);
+
+                        parser.parse(L, ev);
+                        boolean published;
+                        if (ev.kind == ProgressLineParser.Kind.PROGRESS) {
+                            published = onProgress.test(ev);
+                        } else {
+                            if (ev.kind == ProgressLineParser.Kind.LOG) {
+                                appendLog(taskId, logLabel + logPrefix(ev.level) + ev.msg);
                             }
-
-                            // 종목 카운트 캐치
-                            Matcher mCnt = pCnt.matcher(msg);
-                            if (mCnt.find()) {
-                                try {
-                                    state.dataSaved = Integer.parseInt(mCnt.group(1));
-                                    state.dataTotal = Integer.parseInt(mCnt.group(2));
-                                } catch (Exception ignore) {}
+                            if (ev.symbol != null && onSymbol != null) {
+                                published = onSymbol.test(ev);
+                            } else {
+                                // 진행 줄 없이 로그만 이어져도 보류된 진행률은 간격마다 게시
+                                published = progress.publishIfDue();
                             }
-
-                            Map<String, Object> res = new HashMap<>();
-                            res.put("progress", pct);
-                            res.put("message", msg);
-                            res.put("krxPct", state.krxPct);
-                            res.put("dataSaved", state.dataSaved);
-                            res.put("dataTotal", state.dataTotal);
-
-                            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("IN_PROGRESS", res, null));
                         }
+                        if (published) eventHub.markDirty(taskId);
                     }
+                    if (progress.flush()) eventHub.markDirty(taskId);
                 } catch (IOException e) {
                     log.error("[{}] Python 출력 읽기 오류", taskId, e);
                 }
             });
 
-            // 타임아웃 60분
-            boolean finished = process.waitFor(Duration.ofMinutes(60).toSeconds(), TimeUnit.SECONDS);
-            ioPool.shutdownNow();
-
-            if (!finished) {
-                process.destroyForcibly();
-                setFailed(taskId, "Python 실행 시간 초과");
-                return;
+            long remaining = deadline - System.nanoTime();
+            boolean finished = remaining > 0 && process.waitFor(remaining, TimeUnit.NANOSECONDS);
+            if (!finished) supervisor.killTree(process);
+
+            // 종료 후 파이프에 남은 줄까지 읽기 스레드가 처리하도록 대기
+            // → 마지막 종목 결과가 완료 처리(체크포인트 삭제/매니페스트 저장) 뒤에 반영되지 않음
+            try {
+                reading.get(10, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                log.warn("[{}] {}출력 읽기 종료 대기 시간 초과", taskId, logLabel);
+            } catch (ExecutionException e) {
+                log.error("[{}] {}출력 읽기 스레드 오류", taskId, logLabel, e.getCause());
             }
-
-            int exit = process.exitValue();
-            if (exit != 0) {
-                setFailed(taskId, "Python 비정상 종료 (" + exit + ")");
-                return;
+            if (supervised.isStalled()) {
+                appendLog(taskId, logLabel + "⏱️ 출력이 멈춰 프로세스를 종료했습니다.");
             }
+            return finished ? process.exitValue() : EXIT_TIMEOUT;
+        } finally {
+            if (reading != null) reading.cancel(true);
+            supervised.close();
+            if (procs != null) procs.remove(process);
+        }
+    }
 
-            setCompleted(taskId);
+    /** 배치 프로세스를 낮은 CPU 우선순위로 (nice -n N python ...) */
+    private List<String> withNice(List<String> cmd) {
+        if (batchNice <= 0 || System.getProperty("os.name", "").startsWith("Windows")) return cmd;
+        List<String> full = new ArrayList<>(cmd.size() + 3);
+        full.add("nice");
+        full.add("-n");
+        full.add(String.valueOf(Math.min(19, batchNice)));
+        full.addAll(cmd);
+        return full;
+    }
 
-        } catch (Exception e) {
-            log.error("[{}] StockBatch 실행 중 오류", taskId, e);
-            setFailed(taskId, e.getMessage());
-        } finally {
-            if (process != null && process.isAlive()) {
-                try { process.destroyForcibly(); } catch (Exception ignore) {}
+    /** 종목 1건 결과 → 체크포인트 (기록 실패는 배치를 멈추지 않음) */
+    private static void recordSymbol(String taskId, BatchCheckpoint checkpoint, ProgressLineParser.ProgressEvent ev) {
+        try {
+            checkpoint.record(ev.symbol, ev.result);
+        } catch (IOException e) {
+            log.warn("[{}] 체크포인트 기록 실패 ({}): {}", taskId, ev.symbol, e.getMessage());
+        }
+    }
+
+    private Path checkpointPath() {
+        return checkpointDir == null || checkpointDir.isBlank()
+                ? Path.of(pythonWorkingDir, "stock", "checkpoint")
+                : Path.of(checkpointDir);
+    }
+
+    /**
+     * 체크포인트 조회 (이어하기 가능 여부)
+     * - exists=false 면 이어하기 = 전체 실행
+     */
+    public Map<String, Object> getCheckpointInfo() throws IOException {
+        BatchCheckpoint cp = BatchCheckpoint.load(checkpointPath());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("exists", cp != null);
+        if (cp != null) {
+            body.put("done", cp.doneCount());
+            body.put("failed", cp.failedCount());
+            body.put("force", cp.isForce());
+        }
+        return body;
+    }
+
+    /**
+     * 샤드 수 K
+     * - requested > 0 이면 요청값, 아니면 shard.max (0 = CPU 수)
+     * - CPU 수, 여유 메모리 / 프로세스당 메모리, 종목 수 를 넘지 않음
+     */
+    private int shardCount(int requested, int symbols) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int k = requested > 0 ? requested : (maxShards > 0 ? maxShards : cpus);
+        k = Math.min(k, cpus);
+
+        long availableMb = availableMemoryMb();
+        if (availableMb >= 0) {
+            k = (int) Math.min(k, Math.max(1, availableMb / Math.max(1, shardMemoryMb)));
+        }
+        return Math.max(1, Math.min(k, symbols));
+    }
+
+    /**
+     * 샤드에 쓸 수 있는 메모리 (MB, 모르면 -1)
+     * - memory-budget-mb 설정 → /proc/meminfo MemAvailable (회수 가능한 페이지 캐시 포함)
+     *   → JVM 의 getFreeMemorySize (페이지 캐시 제외라 실제보다 작게 나옴)
+     */
+    private long availableMemoryMb() {
+        if (shardMemoryBudgetMb > 0) return shardMemoryBudgetMb;
+        Path meminfo = Path.of("/proc/meminfo");
+        if (Files.isReadable(meminfo)) {
+            try (var lines = Files.lines(meminfo)) {
+                OptionalLong kb = lines.filter(l -> l.startsWith("MemAvailable:"))
+                        .mapToLong(l -> Long.parseLong(l.replaceAll("\\D", "")))
+                        .findFirst();
+                if (kb.isPresent()) return kb.getAsLong() / 1024;
+            } catch (IOException | RuntimeException e) {
+                log.debug("MemAvailable 읽기 실패: {}", e.getMessage());
             }
-            runningProcesses.remove(taskId);
-            activeLock.set(false);
-            log.info("[{}] 🔓 Lock 해제 완료", taskId);
         }
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getFreeMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    /** 작업 목록을 라운드로빈으로 나눠 샤드 파일 작성 (한 줄: 코드<TAB>종목명<TAB>시작일, 시작일은 비어 있을 수 있음) */
+    private static List<Path> writeShardFiles(Path dir, List<StockDataManifest.WorkItem> work, int k) throws IOException {
+        List<StringBuilder> bodies = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) bodies.add(new StringBuilder());
+        for (int i = 0; i < work.size(); i++) {
+            StockDataManifest.WorkItem w = work.get(i);
+            bodies.get(i % k).append(w.code()).append('\t').append(w.name()).append('\t')
+                    .append(w.fromDate() != null ? w.fromDate().toString() : "").append('\n');
+        }
+
+        List<Path> files = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            Path f = dir.resolve("shard-" + (i + 1) + ".tsv");
+            Files.writeString(f, bodies.get(i), StandardCharsets.UTF_8);
+            files.add(f);
+        }
+        return files;
+    }
+
+    /** 샤드 파일에서 체크포인트에 완료로 기록된 종목을 뺌 @return 남은 종목 수 */
+    private static int pruneShardFile(Path file, BatchCheckpoint cp) throws IOException {
+        StringBuilder body = new StringBuilder();
+        int left = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            String code = tab >= 0 ? line.substring(0, tab) : line;
+            if (code.isBlank() || cp.isDone(code)) continue;
+            body.append(line).append('\n');
+            left++;
+        }
+        Files.writeString(file, body, StandardCharsets.UTF_8);
+        return left;
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) return;
+        try (var files = Files.list(dir)) {
+            files.forEach(f -> f.toFile().delete());
+        } catch (IOException ignore) {}
+        dir.toFile().delete();
+    }
+
+    private boolean isCancelled(String taskId) {
+        TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(taskId);
+        return s != null && "CANCELLED".equals(s.getStatus());
+    }
+
+    private TaskProgress progressOf(String taskId) {
+        return progressStates.computeIfAbsent(taskId, k -> new TaskProgress(progressPublishIntervalMs, ""));
+    }
+
+    private static String logPrefix(String level) {
+        return switch (level) {
+            case "warn", "warning" -> "⚠️ ";
+            case "error" -> "❌ ";
+            default -> "";
+        };
     }
 
     private void appendLog(String taskId, String line) {
-        List<LogLine> list = taskLogs.computeIfAbsent(taskId, k -> new CopyOnWriteArrayList<>());
-        list.add(new LogLine(list.size() + 1, line));
-        if (list.size() > MAX_LOG_LINES) list.remove(0);
+        taskLogs.computeIfAbsent(taskId, k -> new TaskLogBuffer(MAX_LOG_LINES)).append(line);
+        eventHub.markDirty(taskId);
+    }
+
+    /** 상태 저장 + SSE 구독자에게 변경 알림 */
+    private void setStatus(String taskId, TaskStatusService.TaskStatus status) {
+        taskStatusService.setTaskStatus(taskId, status);
+        eventHub.markDirty(taskId);
     }
 
     private void setCompleted(String taskId) {
-        ProgressState st = progressStates.getOrDefault(taskId, new ProgressState());
-        st.krxPct = 100.0;
-        Map<String, Object> res = new HashMap<>();
-        res.put("progress", 100);
-        res.put("message", "✅ 전체 완료");
-        res.put("krxPct", st.krxPct);
-        res.put("dataSaved", st.dataSaved);
-        res.put("dataTotal", st.dataTotal);
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", res, null));
+        Map<String, Object> res = progressOf(taskId).complete("✅ 전체 완료").toMap();
+        // 로그 먼저 → 완료 상태를 받은 SSE 구독자가 마지막 로그를 놓치지 않음
         appendLog(taskId, "[PROGRESS] 100.0 ✅ 전체 완료");
         appendLog(taskId, "✅ 업데이트 완료");
+        setStatus(taskId, new TaskStatusService.TaskStatus("COMPLETED", res, null));
+
+        // ✅ 새 stock_listing.json 즉시 반영
+        try {
+            stockListService.reload();
+        } catch (IOException e) {
+            log.warn("[{}] 종목 리스트 재로딩 실패: {}", taskId, e.getMessage());
+        }
     }
 
     private void setFailed(String taskId, String err) {
-        taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, err));
         appendLog(taskId, "❌ 실패: " + err);
+        setStatus(taskId, new TaskStatusService.TaskStatus("FAILED", null, err));
     }
 
-    /** ✅ 상태 조회 */
-    public Map<String, Object> getStatusWithLogs(String taskId) {
+    /**
+     * ✅ 상태 조회
+     * - afterSeq 이후 새 로그만 반환 (0 이면 버퍼 전체)
+     * - lastSeq: 클라이언트가 다음 조회 때 afterSeq 로 넘길 값 (이번에 돌려준 마지막 로그 seq, 없으면 afterSeq)
+     *   → 조회 중 추가된 줄 / MAX_LOG_LINES 를 넘은 줄은 다음 조회에서 받음
+     */
+    public Map<String, Object> getStatusWithLogs(String taskId, long afterSeq) {
         TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(taskId);
+
+        // 이 노드가 실행하지 않은 작업 → 공유 상태가 더 최근이면 그것으로 응답 (다른 노드에서 실행/등록)
+        if (!progressStates.containsKey(taskId)) {
+            Optional<SharedTaskStatusStore.Remote> remote = sharedStore.read(taskId);
+            if (remote.isPresent() && (s == null || (!sharedStore.nodeId().equals(remote.get().node())
+                    && !remote.get().statusUpdatedAt().isBefore(s.getUpdatedAt())))) {
+                settle(taskId, remote.get());
+                return remoteBody(remote.get(), afterSeq);
+            }
+        }
+
         Map<String, Object> body = new LinkedHashMap<>();
 
-        // 작업이 없는데 lock 중이면 → "다른 사용자가 업데이트 중입니다."
+        // 대기열 등록 시점에 QUEUED 상태가 생기므로 없으면 만료/잘못된 taskId
         if (s == null) {
-            if (activeLock.get()) {
-                body.put("status", "FAILED");
-                body.put("message", "다른 사용자가 업데이트 중입니다. 잠시 후 다시 시도하세요.");
-            } else {
-                body.put("status", "NOT_FOUND");
-                body.put("message", "작업을 찾을 수 없습니다.");
-            }
+            body.put("status", "NOT_FOUND");
+            body.put("message", "작업을 찾을 수 없습니다.");
             return body;
         }
 
         body.put("status", s.getStatus());
-        Map<String, Object> result = new HashMap<>();
-        if (s.getResult() != null) result.putAll(s.getResult());
-
-        ProgressState st = progressStates.get(taskId);
-        if (st != null) {
-            result.put("krxPct", st.krxPct);
-            result.put("dataSaved", st.dataSaved);
-            result.put("dataTotal", st.dataTotal);
-        }
-
-        body.put("result", result);
+        body.put("result", resultOf(taskId, s));
         if (s.getErrorMessage() != null)
             body.put("errorMessage", s.getErrorMessage());
-        body.put("logs", taskLogs.getOrDefault(taskId, Collections.emptyList()));
+        TaskLogBuffer logs = taskLogs.get(taskId);
+        List<TaskLogBuffer.LogLine> lines = logs != null ? logs.since(afterSeq, MAX_LOG_LINES) : List.of();
+        body.put("logs", lines);
+        body.put("lastSeq", logs != null ? logs.cursor(lines, afterSeq) : 0L);
+        Map<String, Object> usage = supervisor.usage(taskId);
+        if (usage != null) body.put("usage", usage);
 
         return body;
     }
 
-    public void cancelTask(String taskId) {
-        Process p = runningProcesses.get(taskId);
-        if (p != null && p.isAlive()) {
-            log.warn("[{}] 사용자 요청으로 프로세스 종료", taskId);
-            try { p.destroyForcibly(); } catch (Exception ignore) {}
-            appendLog(taskId, "⏹ 사용자 요청으로 취소됨");
-            ProgressState st = progressStates.getOrDefault(taskId, new ProgressState());
-            Map<String, Object> res = new HashMap<>();
-            res.put("progress", 0);
-            res.put("message", "취소됨");
-            res.put("krxPct", st.krxPct);
-            res.put("dataSaved", st.dataSaved);
-            res.put("dataTotal", st.dataTotal);
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("CANCELLED", res, "사용자 취소"));
-        } else {
-            taskStatusService.setTaskStatus(taskId, new TaskStatusService.TaskStatus("CANCELLED",
-                    Map.of("message", "취소됨"), "실행 중인 작업이 없습니다."));
+    /**
+     * 다른 노드에서 끝난 작업의 로컬 상태 정리 (StockBatchJobQueue 가 작업 행 기준으로 주기 호출)
+     * - 대기열 등록만 한 노드의 QUEUED 는 만료가 없음 → 최종 상태로 바꿔 retention 후 만료되게 함
+     * - 공유 상태가 끝났으면 그 내용으로, 없으면(정리됨) 작업 행의 상태로
+     * @param jobStatus  작업 행의 최종 상태 (COMPLETED / FAILED / CANCELLED)
+     * @param finishedAt 작업 행의 종료 시각
+     */
+    public void settleFinished(String taskId, String jobStatus, Instant finishedAt) {
+        if (progressStates.containsKey(taskId)) return; // 이 노드가 실행한 작업은 실행 스레드가 정리
+        Optional<SharedTaskStatusStore.Remote> remote = sharedStore.read(taskId);
+        if (remote.isPresent() && settle(taskId, remote.get())) return;
+        adopt(taskId, new TaskStatusService.TaskStatus(jobStatus,
+                Map.of("message", "다른 노드에서 종료됨"), null), finishedAt != null ? finishedAt : Instant.now());
+    }
+
+    /** 공유 상태가 끝났으면 로컬의 끝나지 않은 상태를 교체 @return 공유 상태가 끝난 상태였으면 true */
+    private boolean settle(String taskId, SharedTaskStatusStore.Remote r) {
+        TaskStatusService.TaskStatus settled = new TaskStatusService.TaskStatus(r.status(), r.result(), r.errorMessage());
+        if (!settled.isFinished()) return false;
+        adopt(taskId, settled, r.statusUpdatedAt());
+        return true;
+    }
+
+    /**
+     * 로컬 상태만 교체 (markDirty 안 함 → 실행 노드의 공유 행을 덮어쓰지 않음)
+     * - 시각은 공유 상태 기준 → 조회는 계속 공유 상태(실행 노드의 로그 포함)로 응답
+     */
+    private void adopt(String taskId, TaskStatusService.TaskStatus settled, Instant at) {
+        TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(taskId);
+        if (s == null || s.isFinished()) return;
+        taskStatusService.setTaskStatus(taskId, settled);
+        TaskStatusService.TaskStatus current = taskStatusService.getTaskStatus(taskId);
+        if (current != null) current.setUpdatedAt(at);
+        log.debug("[{}] 다른 노드에서 종료된 작업 → 로컬 상태 {} 로 교체", taskId, settled.getStatus());
+    }
+
+    /** 진행 중 → 최근 게시된 진행 View, 대기/종료 → 저장된 결과 */
+    private Map<String, Object> resultOf(String taskId, TaskStatusService.TaskStatus s) {
+        TaskProgress progress = progressStates.get(taskId);
+        if ("IN_PROGRESS".equals(s.getStatus()) && progress != null) {
+            return progress.view().toMap();
         }
-        activeLock.set(false);
+        return s.getResult() != null ? s.getResult() : Collections.emptyMap();
+    }
+
+    /** 공유 저장소에 쓸 내용 (로그는 최근 log-tail 줄만) */
+    private Optional<SharedTaskStatusStore.Snapshot> snapshotOf(String taskId) {
+        TaskStatusService.TaskStatus s = taskStatusService.getTaskStatus(taskId);
+        if (s == null) return Optional.empty();
+        TaskLogBuffer logs = taskLogs.get(taskId);
+        long lastSeq = logs != null ? logs.lastSeq() : 0L;
+        int tail = sharedStore.logTail();
+        List<TaskLogBuffer.LogLine> lines = logs != null ? logs.since(lastSeq - tail, tail) : List.of();
+        return Optional.of(new SharedTaskStatusStore.Snapshot(s.getStatus(), resultOf(taskId, s),
+                s.getErrorMessage(), lines, lastSeq, s.getUpdatedAt(), s.isFinished()));
     }
 
-    public record LogLine(int seq, String line) {}
+    /** 다른 노드가 저장한 상태 → 같은 모양의 본문 (로그는 저장된 꼬리 중 afterSeq 이후) */
+    private static Map<String, Object> remoteBody(SharedTaskStatusStore.Remote r, long afterSeq) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", r.status());
+        body.put("result", r.result());
+        if (r.errorMessage() != null)
+            body.put("errorMessage", r.errorMessage());
+        body.put("logs", r.logs().stream().filter(l -> l.seq() > afterSeq).toList());
+        body.put("lastSeq", Math.max(r.lastSeq(), afterSeq));
+        body.put("node", r.node());
+        return body;
+    }
+
+    /** 작업 저장소 통계 (live/running/expired/evicted + 로그 버퍼 수) */
+    public Map<String, Object> getTaskStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(taskStatusService.getStats());
+        stats.put("logBuffers", taskLogs.size());
+        stats.put("sseSubscribers", eventHub.getSubscriberCount());
+        stats.put("shared", sharedStore.stats());
+        return stats;
+    }
+
+    /**
+     * 이 노드에서 실행 중인 작업 중단 (사용자 취소는 StockBatchJobQueue.cancel 로 → 실행 노드가 이 메서드 호출)
+     * @param reason 취소 사유 (사용자 취소 / 실행권 상실 등)
+     * @return 이 노드가 실행 중이던 작업이면 true (아니면 상태를 건드리지 않음 → 실행 노드의 상태 유지)
+     */
+    public boolean cancelTask(String taskId, String reason) {
+        List<Process> procs = runningProcesses.get(taskId);
+        if (procs == null) return false;
+
+        // 상태 먼저 CANCELLED → 샤드 재시도/다음 단계 진행 안 함
+        log.warn("[{}] {} → 프로세스 종료 ({}개)", taskId, reason, procs.size());
+        appendLog(taskId, "⏹ 취소됨: " + reason);
+        Map<String, Object> res = progressOf(taskId).cancel("취소됨").toMap();
+        setStatus(taskId, new TaskStatusService.TaskStatus("CANCELLED", res, reason));
+        for (Process p : procs) {
+            try { supervisor.killTree(p); } catch (Exception ignore) {}
+        }
+        // lock 은 실행 스레드가 정리 후 해제
+        return true;
+    }
 }
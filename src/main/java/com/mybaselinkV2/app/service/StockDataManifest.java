@@ -0,0 +1,253 @@
+package com.mybaselinkV2.app.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StockDataManifest
+ * --------------------------------------------------------
+ * 종목별 parquet 데이터 현황 (manifest.json)
+ * - 종목마다 마지막 일봉 날짜 / 행 수 / 파일 체크섬 / 확인 기준일
+ * - 값은 update_stock_listing.py 가 종목 1건 저장 후 보고한 것 (Java 는 parquet 을 열지 않음)
+ * - checkedDate: 이 날짜까지의 일봉은 이미 받아 봄 (거래정지 등으로 lastDate 가 더 이를 수 있음)
+ *
+ * ✅ 작업 목록 (symbol, fromDate)
+ *   - checkedDate >= 기대 일봉 날짜        → 제외 (최신)
+ *   - 항목 있음                            → lastDate 다음 날부터
+ *   - 항목 없음                            → fromDate 없음 (스크립트가 파일 끝 날짜로 판단, 최초 1회)
+ *   - force                                → 전 종목, fromDate 없음 (전체 재다운로드)
+ *
+ * - 갱신은 샤드 읽기 스레드에서 동시에 → ConcurrentHashMap, 저장은 배치 종료 시 1번 (임시 파일 → 교체)
+ * - 여러 노드가 같은 파일을 씀 → 배치 시작 시 reloadIfChanged() 로 다른 노드의 저장분 반영
+ * --------------------------------------------------------
+ */
+@Component
+public class StockDataManifest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockDataManifest.class);
+
+    /** 종목 1개 현황 */
+    public record Entry(String code, LocalDate lastDate, int rows, String checksum,
+                        LocalDate checkedDate, long updatedAt) {}
+
+    /** 작업 목록 1건 (fromDate == null 이면 스크립트가 판단) */
+    public record WorkItem(String code, String name, LocalDate fromDate) {}
+
+    private final ObjectMapper mapper;
+    private final StockListService stockListService;
+    private final KrxTradingCalendar calendar;
+
+    // 비어 있으면 working.dir/stock_data/manifest.json
+    @Value("${python.stock.manifest.path:}")
+    private String manifestPath;
+
+    @Value("${python.working.dir:}")
+    private String pythonWorkingDir;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean loaded = new AtomicBoolean(false);
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    // 파일 읽기/저장 잠금 (샤드 읽기 스레드가 가상 스레드일 수 있음 → synchronized 대신 ReentrantLock)
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long loadedModified = -1; // 읽은/쓴 시점의 파일 수정 시각
+
+    public StockDataManifest(ObjectMapper mapper, StockListService stockListService, KrxTradingCalendar calendar) {
+        this.mapper = mapper;
+        this.stockListService = stockListService;
+        this.calendar = calendar;
+    }
+
+    /**
+     * 갱신할 종목만 골라 작업 목록 생성
+     * @param expected 기대 일봉 날짜 (calendar.expectedLastBarDate())
+     */
+    public List<WorkItem> workList(List<StockListing> rows, LocalDate expected, boolean force) {
+        ensureLoaded();
+        List<WorkItem> work = new ArrayList<>();
+        for (StockListing r : rows) {
+            Entry e = entries.get(r.code());
+            if (force || e == null) {
+                work.add(new WorkItem(r.code(), r.name(), null));
+            } else if (e.checkedDate() == null || e.checkedDate().isBefore(expected)) {
+                LocalDate from = e.lastDate() != null ? e.lastDate().plusDays(1) : null;
+                work.add(new WorkItem(r.code(), r.name(), from));
+            }
+        }
+        return work;
+    }
+
+    /**
+     * 종목 1건 결과 반영 (ok / cached / empty 만, fail 은 기존 값 유지)
+     * @param checkedThrough 이번 실행의 기대 일봉 날짜
+     */
+    public void record(ProgressLineParser.ProgressEvent ev, LocalDate checkedThrough) {
+        if (ev.symbol == null || "fail".equals(ev.result)) return;
+        ensureLoaded();
+        LocalDate last = parseDate(ev.lastDate);
+        Entry prev = entries.get(ev.symbol);
+        if (last == null && prev != null) last = prev.lastDate(); // 메타 없는 보고(레거시)는 날짜 유지
+        entries.put(ev.symbol, new Entry(ev.symbol, last,
+                ev.rows >= 0 ? ev.rows : (prev != null ? prev.rows() : 0),
+                ev.checksum != null ? ev.checksum : (prev != null ? prev.checksum() : null),
+                checkedThrough, System.currentTimeMillis()));
+        dirty.set(true);
+    }
+
+    /** 변경이 있으면 저장 (임시 파일에 쓴 뒤 교체) */
+    public void saveIfDirty() {
+        lock.lock();
+        try {
+            if (!dirty.getAndSet(false)) return;
+            Path file = path();
+            try {
+                Files.createDirectories(file.getParent());
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                List<Entry> list = new ArrayList<>(entries.values());
+                list.sort(Comparator.comparing(Entry::code));
+                mapper.writeValue(tmp.toFile(), list);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                loadedModified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                dirty.set(true); // 다음 배치 종료 때 다시 시도
+                log.warn("매니페스트 저장 실패: {}", e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 파일이 읽은 뒤 바뀌었으면 (다른 노드가 저장) 다음 사용 때 다시 읽음 */
+    public void reloadIfChanged() {
+        lock.lock();
+        try {
+            if (!loaded.get() || dirty.get()) return;
+            try {
+                Path file = path();
+                long modified = Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : -1;
+                if (modified != loadedModified) loaded.set(false);
+            } catch (IOException e) {
+                loaded.set(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 저장하지 않은 변경 버림 (실행권 상실 시) → 다음 사용 때 파일에서 다시 읽음 */
+    public void discardChanges() {
+        lock.lock();
+        try {
+            dirty.set(false);
+            loaded.set(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 데이터 신선도 (파일을 열지 않고 매니페스트만으로 계산)
+     * @param limit 오래된 종목 목록 최대 건수
+     */
+    public Map<String, Object> freshness(int limit) throws IOException {
+        ensureLoaded();
+        LocalDate expected = calendar.expectedLastBarDate();
+        List<StockListing> rows = stockListService.getSnapshot().getRows();
+
+        int fresh = 0, missing = 0;
+        List<Map.Entry<StockListing, Entry>> stale = new ArrayList<>();
+        for (StockListing r : rows) {
+            Entry e = entries.get(r.code());
+            if (e == null) {
+                missing++;
+            } else if (e.checkedDate() != null && !e.checkedDate().isBefore(expected)) {
+                fresh++;
+            } else {
+                stale.add(Map.entry(r, e));
+            }
+        }
+        // 가장 오래된 것부터 (확인 기록이 없는 종목이 맨 앞)
+        stale.sort(Comparator.comparing((Map.Entry<StockListing, Entry> s) -> s.getValue().checkedDate(),
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        List<Map<String, Object>> staleSymbols = new ArrayList<>(Math.min(limit, stale.size()));
+        for (Map.Entry<StockListing, Entry> s : stale.subList(0, Math.min(limit, stale.size()))) {
+            Entry e = s.getValue();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("code", s.getKey().code());
+            m.put("name", s.getKey().name());
+            m.put("lastDate", e.lastDate());
+            m.put("checkedDate", e.checkedDate());
+            m.put("rows", e.rows());
+            staleSymbols.add(m);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("expectedDate", expected);
+        body.put("total", rows.size());
+        body.put("fresh", fresh);
+        body.put("stale", stale.size());
+        body.put("missing", missing);
+        body.put("staleSymbols", staleSymbols);
+        // 휴장일 목록이 없는 해 → expectedDate 가 휴장일일 수 있음
+        calendar.coverageWarning().ifPresent(w -> body.put("calendarWarning", w));
+        return body;
+    }
+
+    private void ensureLoaded() {
+        if (loaded.get()) return;
+        lock.lock();
+        try {
+            if (loaded.get()) return;
+            entries.clear();
+            loadedModified = -1;
+            Path file = path();
+            if (Files.exists(file)) {
+                try {
+                    loadedModified = Files.getLastModifiedTime(file).toMillis();
+                    List<Entry> list = mapper.readValue(file.toFile(), new TypeReference<List<Entry>>() {});
+                    list.forEach(e -> entries.put(e.code(), e));
+                    log.info("📒 매니페스트 로드: {}종목 ({})", list.size(), file);
+                } catch (IOException e) {
+                    // 깨진 파일 → 빈 매니페스트로 시작 (다음 배치가 다시 채움)
+                    log.warn("매니페스트 읽기 실패, 새로 시작: {}", e.getMessage());
+                }
+            }
+            loaded.set(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path path() {
+        return manifestPath == null || manifestPath.isBlank()
+                ? Path.of(pythonWorkingDir, "stock_data", "manifest.json")
+                : Path.of(manifestPath);
+    }
+
+    private static LocalDate parseDate(String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return LocalDate.parse(s);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
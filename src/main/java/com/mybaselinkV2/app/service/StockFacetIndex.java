@@ -0,0 +1,90 @@
+package com.mybaselinkV2.app.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * StockFacetIndex
+ * --------------------------------------------------------
+ * 스냅샷 1개당 한 번 만드는 Market/Dept 값별 bitset
+ * - 검색 결과 bitset 과 AND + bitCount 로 값별 건수 계산
+ * - 2,900행 기준 값 하나당 46 word 연산
+ * --------------------------------------------------------
+ */
+public final class StockFacetIndex {
+
+    public static final String MARKET = "Market";
+    public static final String DEPT = "Dept";
+
+    private final int size;
+    private final int words;
+    private final Map<String, Facet> facets = new LinkedHashMap<>();
+
+    /** 한 컬럼의 값 목록 + 값별 bitset */
+    private record Facet(String[] values, long[][] bits, int[] totals) {}
+
+    StockFacetIndex(List<StockListing> rows) {
+        this.size = rows.size();
+        this.words = (size + 63) >>> 6;
+        facets.put(MARKET, build(rows, StockListing::market));
+        facets.put(DEPT, build(rows, StockListing::dept));
+    }
+
+    private Facet build(List<StockListing> rows, Function<StockListing, String> column) {
+        Map<String, long[]> byValue = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            long[] bits = byValue.computeIfAbsent(column.apply(rows.get(i)), k -> new long[words]);
+            bits[i >>> 6] |= 1L << i;
+        }
+
+        String[] values = byValue.keySet().toArray(new String[0]);
+        long[][] bits = byValue.values().toArray(new long[0][]);
+        int[] totals = new int[values.length];
+        for (int v = 0; v < values.length; v++) totals[v] = cardinality(bits[v]);
+        return new Facet(values, bits, totals);
+    }
+
+    /**
+     * 컬럼별 값 → 건수 (건수 내림차순, 0건 제외)
+     * @param matches 검색 결과 행 인덱스 (null 이면 전체)
+     */
+    public Map<String, Map<String, Integer>> count(int[] matches) {
+        long[] selected = null;
+        if (matches != null) {
+            selected = new long[words];
+            for (int row : matches) selected[row >>> 6] |= 1L << row;
+        }
+
+        Map<String, Map<String, Integer>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Facet> e : facets.entrySet()) {
+            Facet f = e.getValue();
+            List<Integer> order = new ArrayList<>(f.values().length);
+            int[] counts = new int[f.values().length];
+            for (int v = 0; v < counts.length; v++) {
+                counts[v] = selected == null ? f.totals()[v] : andCardinality(f.bits()[v], selected);
+                if (counts[v] > 0) order.add(v);
+            }
+            order.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+
+            Map<String, Integer> byValue = new LinkedHashMap<>();
+            for (int v : order) byValue.put(f.values()[v], counts[v]);
+            out.put(e.getKey(), byValue);
+        }
+        return out;
+    }
+
+    private static int cardinality(long[] a) {
+        int n = 0;
+        for (long w : a) n += Long.bitCount(w);
+        return n;
+    }
+
+    private static int andCardinality(long[] a, long[] b) {
+        int n = 0;
+        for (int i = 0; i < a.length; i++) n += Long.bitCount(a[i] & b[i]);
+        return n;
+    }
+}
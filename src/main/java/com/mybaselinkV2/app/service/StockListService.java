@@ -1,32 +1,66 @@
 package com.mybaselinkV2.app.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * StockListService
  * --------------------------------------------------------
  * python/stock/stock_list/stock_listing.json 읽기
+ * - 파싱 결과는 불변 스냅샷(StockListingSnapshot)으로 보관
+ * - JsonParser 스트리밍 파싱 → StockListing 레코드 (Map 생성 없음)
+ * - 파일 mtime/size 변경 시에만 다시 파싱 후 원자적으로 교체
+ * - stat 체크는 STAT_CHECK_INTERVAL_MS 에 한 번만 수행
+ * - client 모드 전체 응답은 같은 파싱에서 원본 행 그대로(모든 컬럼, 원래 타입 + id) gzip 바이트로 직렬화
  * --------------------------------------------------------
  */
 @Service
 public class StockListService {
 
-    private final ObjectMapper mapper = new ObjectMapper();
-    
+    private static final Logger log = LoggerFactory.getLogger(StockListService.class);
+
+    // ✅ 파일 변경 확인(stat) 최소 간격
+    private static final long STAT_CHECK_INTERVAL_MS = 1000L;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ObjectMapper objectMapper;
+
     // ✅ 프로퍼티 값 주입 시, 기본값을 설정하여 파일이 없는 경우 대비
     @Value("${python.stock.stock_listing.path:}")
     private String localPath;
-    
+
+    // ✅ 현재 스냅샷 (읽기 전용 공유)
+    private volatile StockListingSnapshot snapshot;
+    private volatile long lastStatCheckMillis = 0L;
+    private final AtomicLong versionSeq = new AtomicLong();
+    // 파일 파싱 중 잠금 (동시 요청이 같은 파일을 중복 파싱하지 않도록, 파일 I/O 동안 잡으므로 synchronized 대신 ReentrantLock)
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public StockListService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
 
     private File resolveJsonFile() throws IOException {
         // String localPath = "C:\LocBootProject\workspace\MyBaseLink\python\stock\stock_list\stock_listing.json";
@@ -40,17 +74,163 @@ public class StockListService {
     }
 
     /**
-     * getStockList() 메서드에 id 추가 로직을 포함
+     * 현재 스냅샷 조회
+     * - 마지막 stat 체크 후 STAT_CHECK_INTERVAL_MS 이내면 그대로 반환
+     * - 파일이 바뀌었으면 다시 읽어 교체
      */
-    public List<Map<String, Object>> getStockList() throws IOException {
+    public StockListingSnapshot getSnapshot() throws IOException {
+        StockListingSnapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (current != null && now - lastStatCheckMillis < STAT_CHECK_INTERVAL_MS) {
+            return current;
+        }
+        lastStatCheckMillis = now;
+
         File jsonFile = resolveJsonFile();
-        List<Map<String, Object>> stockList = mapper.readValue(jsonFile, new TypeReference<List<Map<String, Object>>>() {});
-        
-        // ✅ 각 항목에 고유한 id 추가
-        for (int i = 0; i < stockList.size(); i++) {
-            stockList.get(i).put("id", i + 1); // 1부터 시작하는 id
+        if (current != null && current.isSameSource(jsonFile)) {
+            return current;
+        }
+        return load(jsonFile, false);
+    }
+
+    /**
+     * 강제 재로딩 (배치 완료 후 호출)
+     */
+    public StockListingSnapshot reload() throws IOException {
+        return load(resolveJsonFile(), true);
+    }
+
+    private StockListingSnapshot load(File jsonFile, boolean force) throws IOException {
+        loadLock.lock();
+        try {
+            // 다른 스레드가 먼저 교체했으면 그대로 사용
+            StockListingSnapshot current = snapshot;
+            if (!force && current != null && current.isSameSource(jsonFile)) {
+                return current;
+            }
+
+            Parsed parsed;
+            try {
+                parsed = parseListing(jsonFile);
+            } catch (IOException e) {
+                // 배치가 파일을 쓰는 도중일 수 있음 → 기존 스냅샷 유지, 다음 체크에서 재시도
+                if (current != null) {
+                    log.warn("stock_listing.json 파싱 실패, 기존 스냅샷(v{}) 유지: {}", current.getVersion(), e.getMessage());
+                    return current;
+                }
+                throw e;
+            }
+
+            StockListingSnapshot next = new StockListingSnapshot(
+                    versionSeq.incrementAndGet(), jsonFile, Collections.unmodifiableList(parsed.rows()), parsed.clientPayloadGzip());
+            snapshot = next;
+            log.info("📄 종목 리스트 스냅샷 v{} 로드 ({}건, client 응답 {} bytes gzip, {})",
+                    next.getVersion(), next.size(), parsed.clientPayloadGzip().length, jsonFile);
+            return next;
+        } finally {
+            loadLock.unlock();
         }
-        
-        return stockList;
     }
-}
\ No newline at end of file
+
+    /** 파싱 결과: 레코드 + client 모드 전체 응답 (gzip) */
+    private record Parsed(List<StockListing> rows, byte[] clientPayloadGzip) {}
+
+    /**
+     * JSON 배열을 스트리밍으로 읽어 StockListing 리스트 생성
+     * - 레코드에는 리스트/엑셀 컬럼만, 반복되는 Market/Dept/Date 문자열은 한 인스턴스로 공유
+     * - 같은 패스에서 원본 행을 그대로 복사해 client 응답 생성
+     *   (ISU_CD, Marcap ... 모든 컬럼 + 원래 타입(Close 는 문자열) + 마지막에 id → 기존 Map 응답과 동일)
+     */
+    private Parsed parseListing(File jsonFile) throws IOException {
+        List<StockListing> rows = new ArrayList<>(4096);
+        Map<String, String> dedup = new HashMap<>();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(256 * 1024);
+
+        try (JsonParser p = jsonFactory.createParser(jsonFile);
+             JsonGenerator g = jsonFactory.createGenerator(new GZIPOutputStream(buf), JsonEncoding.UTF8)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("stock_listing.json 형식 오류: 배열이 아님");
+            }
+            g.writeStartObject();
+            g.writeArrayFieldStart("content");
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                String code = "", name = "", market = "", dept = "", date = "";
+                long close = 0, open = 0, high = 0, low = 0, volume = 0;
+
+                g.writeStartObject();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    g.writeFieldName(field);
+                    if (p.nextToken().isStructStart()) {
+                        g.copyCurrentStructure(p); // 객체/배열 값은 그대로 전달만
+                        continue;
+                    }
+                    g.copyCurrentEvent(p);
+                    switch (field) {
+                        case "Code" -> code = text(p);
+                        case "Name" -> name = text(p);
+                        case "Market" -> market = dedup.computeIfAbsent(text(p), k -> k);
+                        case "Dept" -> dept = dedup.computeIfAbsent(text(p), k -> k);
+                        case "Date" -> date = dedup.computeIfAbsent(text(p), k -> k);
+                        case "Close" -> close = number(p);
+                        case "Open" -> open = number(p);
+                        case "High" -> high = number(p);
+                        case "Low" -> low = number(p);
+                        case "Volume" -> volume = number(p);
+                        default -> { }
+                    }
+                }
+                // ✅ 1부터 시작하는 id
+                int id = rows.size() + 1;
+                g.writeNumberField("id", id);
+                g.writeEndObject();
+                rows.add(new StockListing(id, code, name, market, dept,
+                        close, open, high, low, volume, date));
+            }
+            g.writeEndArray();
+            g.writeNumberField("page", 0);
+            g.writeNumberField("totalPages", 1);
+            g.writeNumberField("totalElements", rows.size());
+            g.writeEndObject();
+        }
+        return new Parsed(rows, buf.toByteArray());
+    }
+
+    private static String text(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return "";
+        String v = p.getValueAsString();
+        return v != null ? v : "";
+    }
+
+    /** 숫자 컬럼: int/float/문자열("98800") 모두 허용, 없으면 0 */
+    private static long number(JsonParser p) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_NUMBER_INT:
+                return p.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return (long) p.getDoubleValue();
+            case VALUE_STRING:
+                String s = p.getText().trim();
+                if (s.isEmpty()) return 0;
+                try {
+                    return Long.parseLong(s);
+                } catch (NumberFormatException e) {
+                    try {
+                        return (long) Double.parseDouble(s);
+                    } catch (NumberFormatException ignore) {
+                        return 0;
+                    }
+                }
+            default:
+                p.skipChildren();
+                return 0;
+        }
+    }
+
+    /**
+     * 현재 스냅샷의 종목 리스트 (읽기 전용)
+     */
+    public List<StockListing> getStockList() throws IOException {
+        return getSnapshot().getRows();
+    }
+}
@@ -0,0 +1,29 @@
+package com.mybaselinkV2.app.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * StockListing
+ * --------------------------------------------------------
+ * stock_listing.json 한 행 (리스트/엑셀에서 쓰는 컬럼만 보관)
+ * - JSON 키는 기존 Map 방식과 동일 (id, Code, Name ...)
+ * - 숫자 컬럼은 long 원시값, 값이 없으면 0 (Close 는 원본처럼 문자열로 직렬화)
+ * - 서버 모드 응답용, client 모드 전체 응답은 원본 행 그대로 (StockListService.parseListing)
+ * --------------------------------------------------------
+ */
+@JsonPropertyOrder({"id", "Code", "Name", "Market", "Dept", "Close", "Open", "High", "Low", "Volume", "Date"})
+public record StockListing(
+        @JsonProperty("id") int id,
+        @JsonProperty("Code") String code,
+        @JsonProperty("Name") String name,
+        @JsonProperty("Market") String market,
+        @JsonProperty("Dept") String dept,
+        @JsonProperty("Close") @JsonFormat(shape = JsonFormat.Shape.STRING) long close,
+        @JsonProperty("Open") long open,
+        @JsonProperty("High") long high,
+        @JsonProperty("Low") long low,
+        @JsonProperty("Volume") long volume,
+        @JsonProperty("Date") String date
+) {}
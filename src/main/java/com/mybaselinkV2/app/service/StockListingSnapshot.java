@@ -0,0 +1,93 @@
+package com.mybaselinkV2.app.service;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StockListingSnapshot
+ * --------------------------------------------------------
+ * stock_listing.json 한 번 파싱 결과 (불변, 버전 관리)
+ * - 파일 mtime/size 가 바뀔 때만 새로 만들어짐
+ * - 모든 요청이 읽기 전용으로 공유
+ * - 검색/정렬/facet 인덱스도 스냅샷과 함께 한 번만 생성
+ * - ETag 는 원본 파일 mtime/size 기준 (재기동/다른 노드에서도 동일)
+ * --------------------------------------------------------
+ */
+public final class StockListingSnapshot {
+
+    private final long version;
+    private final String sourcePath;
+    private final long sourceLastModified;
+    private final long sourceSize;
+    private final Instant loadedAt;
+    private final List<StockListing> rows;
+    private final StockSearchIndex searchIndex;
+    private final StockSortIndex sortIndex;
+    private final StockFacetIndex facetIndex;
+    private final String eTag;
+
+    // client 모드 전체 응답 (gzip, 로드 시 원본 행 그대로 한 번만 직렬화)
+    private final byte[] clientPayloadGzip;
+
+    StockListingSnapshot(long version, File source, List<StockListing> rows, byte[] clientPayloadGzip) {
+        this.version = version;
+        this.sourcePath = source.getAbsolutePath();
+        this.sourceLastModified = source.lastModified();
+        this.sourceSize = source.length();
+        this.loadedAt = Instant.now();
+        this.rows = rows;
+        this.clientPayloadGzip = clientPayloadGzip;
+        this.searchIndex = new StockSearchIndex(rows);
+        this.sortIndex = new StockSortIndex(rows);
+        this.facetIndex = new StockFacetIndex(rows);
+        this.eTag = "W/\"stock-" + Long.toHexString(sourceLastModified) + "-" + Long.toHexString(sourceSize) + "\"";
+    }
+
+    /** 같은 파일, 같은 mtime/size 인지 (stat 만으로 판단) */
+    boolean isSameSource(File file) {
+        return sourcePath.equals(file.getAbsolutePath())
+                && sourceLastModified == file.lastModified()
+                && sourceSize == file.length();
+    }
+
+    public long getVersion() { return version; }
+    public long getSourceLastModified() { return sourceLastModified; }
+    public Instant getLoadedAt() { return loadedAt; }
+    public String getETag() { return eTag; }
+    public List<StockListing> getRows() { return rows; }
+    public int size() { return rows.size(); }
+    /** client 모드 전체 응답 (검색/정렬 없음, gzip) */
+    public byte[] getClientPayloadGzip() { return clientPayloadGzip; }
+
+    /** 검색 결과 행 인덱스 (오름차순) */
+    public int[] search(String query) {
+        return searchIndex.search(query);
+    }
+
+    /**
+     * 정렬 + 페이징: 미리 계산한 순열에서 [offset, offset+limit) 구간만 추출
+     * @param matches 검색 결과 (null 이면 전체)
+     */
+    public int[] page(List<StockSortIndex.SortKey> sort, int[] matches, int offset, int limit) {
+        return sortIndex.page(sort, matches, offset, limit);
+    }
+
+    /**
+     * Market/Dept 값별 건수
+     * @param matches 검색 결과 (null 이면 전체)
+     */
+    public Map<String, Map<String, Integer>> facets(int[] matches) {
+        return facetIndex.count(matches);
+    }
+
+    /** 행 인덱스 배열 → 리스트 뷰 (복사 없음) */
+    public List<StockListing> select(int[] indexes) {
+        return new AbstractList<>() {
+            @Override public StockListing get(int i) { return rows.get(indexes[i]); }
+            @Override public int size() { return indexes.length; }
+        };
+    }
+}
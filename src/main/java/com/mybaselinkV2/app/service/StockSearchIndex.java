@@ -0,0 +1,218 @@
+package com.mybaselinkV2.app.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * StockSearchIndex
+ * --------------------------------------------------------
+ * 스냅샷 1개당 한 번 만드는 검색 인덱스
+ * - Code/Name/Dept/Market 소문자 기준 1-gram, 2-gram 역색인
+ * - Name/Dept 초성 문자열 2-gram 역색인 ("ㅅㅅㅈㅈ" → 삼성전자)
+ * - 검색 = posting list 교집합 → 후보만 부분문자열 재확인
+ * - 결과는 오름차순 행 인덱스(0부터) 배열
+ * --------------------------------------------------------
+ */
+public final class StockSearchIndex {
+
+    private static final char[] CHOSUNG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ',
+            'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+    private static final int[] EMPTY = new int[0];
+
+    private final int size;
+
+    // 행별 검색 대상 (소문자 / 초성 변환)
+    private final String[][] fields;
+    private final String[][] chosungFields;
+
+    // gram → 행 인덱스(오름차순, 중복 없음)
+    private final Map<Integer, int[]> postings;
+    private final Map<Integer, int[]> chosungPostings;
+
+    StockSearchIndex(List<StockListing> rows) {
+        this.size = rows.size();
+        this.fields = new String[size][];
+        this.chosungFields = new String[size][];
+
+        Map<Integer, IntList> grams = new HashMap<>();
+        Map<Integer, IntList> chosungGrams = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            StockListing r = rows.get(i);
+            String name = r.name().toLowerCase(Locale.ROOT);
+            String dept = r.dept().toLowerCase(Locale.ROOT);
+            fields[i] = new String[] {
+                    r.code().toLowerCase(Locale.ROOT), name, dept, r.market().toLowerCase(Locale.ROOT)
+            };
+            chosungFields[i] = new String[] { toChosung(name), toChosung(dept) };
+
+            for (String f : fields[i]) addGrams(grams, f, i);
+            for (String f : chosungFields[i]) addGrams(chosungGrams, f, i);
+        }
+
+        this.postings = freeze(grams);
+        this.chosungPostings = freeze(chosungGrams);
+    }
+
+    /**
+     * 검색
+     * - 일반 검색: 네 필드 중 하나라도 부분문자열 포함
+     * - 초성 포함 검색: Name/Dept 에서 초성 자리는 초성 일치, 나머지는 글자 일치
+     */
+    public int[] search(String query) {
+        if (query == null || query.isEmpty()) return EMPTY;
+        String q = query.toLowerCase(Locale.ROOT);
+
+        int[] plain = verify(intersect(postings, q), q, false);
+        if (!hasChosung(q)) return plain;
+
+        int[] chosung = verify(intersect(chosungPostings, toChosung(q)), q, true);
+        return union(plain, chosung);
+    }
+
+    public int size() { return size; }
+
+    // ==================================
+    // 내부 구현
+    // ==================================
+    private static void addGrams(Map<Integer, IntList> grams, String s, int row) {
+        for (int i = 0; i < s.length(); i++) {
+            grams.computeIfAbsent(gram(s.charAt(i)), k -> new IntList()).addUnique(row);
+            if (i + 1 < s.length()) {
+                grams.computeIfAbsent(gram(s.charAt(i), s.charAt(i + 1)), k -> new IntList()).addUnique(row);
+            }
+        }
+    }
+
+    private static Map<Integer, int[]> freeze(Map<Integer, IntList> grams) {
+        Map<Integer, int[]> out = new HashMap<>(grams.size() * 2);
+        grams.forEach((k, v) -> out.put(k, v.toArray()));
+        return out;
+    }
+
+    // 1-gram 은 상위 16비트를 0xFFFF 로 표시해 2-gram 과 구분
+    private static int gram(char c) { return 0xFFFF0000 | c; }
+    private static int gram(char a, char b) { return (a << 16) | b; }
+
+    /** 질의의 모든 gram posting 을 작은 것부터 교집합 */
+    private static int[] intersect(Map<Integer, int[]> index, String q) {
+        if (q.length() == 1) {
+            return index.getOrDefault(gram(q.charAt(0)), EMPTY);
+        }
+        int[][] lists = new int[q.length() - 1][];
+        for (int i = 0; i + 1 < q.length(); i++) {
+            int[] p = index.get(gram(q.charAt(i), q.charAt(i + 1)));
+            if (p == null) return EMPTY;
+            lists[i] = p;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] acc = lists[0];
+        for (int i = 1; i < lists.length && acc.length > 0; i++) {
+            if (lists[i] == lists[i - 1]) continue; // 같은 gram 반복
+            acc = intersect(acc, lists[i]);
+        }
+        return acc;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) return b;
+        if (b.length == 0) return a;
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) out[n++] = a[i++];
+            else if (i >= a.length || b[j] < a[i]) out[n++] = b[j++];
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** gram 교집합은 후보일 뿐 → 실제 부분문자열 여부 확인 */
+    private int[] verify(int[] candidates, String q, boolean chosungMode) {
+        if (candidates.length == 0) return EMPTY;
+        int[] out = new int[candidates.length];
+        int n = 0;
+        for (int row : candidates) {
+            boolean hit = false;
+            if (chosungMode) {
+                String[] raw = fields[row];
+                hit = containsChosung(raw[1], q) || containsChosung(raw[2], q);
+            } else {
+                for (String f : fields[row]) {
+                    if (f.contains(q)) { hit = true; break; }
+                }
+            }
+            if (hit) out[n++] = row;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static boolean containsChosung(String text, String q) {
+        outer:
+        for (int i = 0; i + q.length() <= text.length(); i++) {
+            for (int j = 0; j < q.length(); j++) {
+                char qc = q.charAt(j);
+                char tc = text.charAt(i + j);
+                if (isChosung(qc) ? chosungOf(tc) != qc : tc != qc) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean hasChosung(String q) {
+        for (int i = 0; i < q.length(); i++) {
+            if (isChosung(q.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    private static boolean isChosung(char c) {
+        return c >= 'ㄱ' && c <= 'ㅎ';
+    }
+
+    /** 한글 음절이면 초성, 아니면 그대로 */
+    private static char chosungOf(char c) {
+        if (c >= 0xAC00 && c <= 0xD7A3) {
+            return CHOSUNG[(c - 0xAC00) / 588];
+        }
+        return c;
+    }
+
+    static String toChosung(String s) {
+        char[] out = new char[s.length()];
+        for (int i = 0; i < out.length; i++) out[i] = chosungOf(s.charAt(i));
+        return new String(out);
+    }
+
+    /** posting 작성용 int 가변 배열 */
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void addUnique(int v) {
+            if (size > 0 && data[size - 1] == v) return; // 같은 행 중복 방지 (행 순서대로 추가됨)
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int[] toArray() { return Arrays.copyOf(data, size); }
+    }
+}
@@ -0,0 +1,180 @@
+package com.mybaselinkV2.app.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * StockSortIndex
+ * --------------------------------------------------------
+ * 스냅샷 1개당 한 번 만드는 정렬 인덱스
+ * - 정렬 가능한 컬럼마다 오름차순 순열(order)과 동순위 rank 를 미리 계산
+ * - 요청 시에는 순열을 따라가며 검색 결과에 포함된 행만 골라 페이지 조각만 생성
+ * - 다중 컬럼 정렬은 1순위 동순위 그룹 안에서만 다음 컬럼 rank(int) 비교
+ * --------------------------------------------------------
+ */
+public final class StockSortIndex {
+
+    /** 정렬 키: sort=Close,desc;Volume,asc */
+    public record SortKey(String column, boolean desc) {}
+
+    private static final Map<String, Comparator<StockListing>> COLUMNS = new LinkedHashMap<>();
+    static {
+        COLUMNS.put("id", Comparator.comparingInt(StockListing::id));
+        COLUMNS.put("Code", Comparator.comparing(StockListing::code));
+        COLUMNS.put("Name", Comparator.comparing(StockListing::name));
+        COLUMNS.put("Market", Comparator.comparing(StockListing::market));
+        COLUMNS.put("Dept", Comparator.comparing(StockListing::dept));
+        COLUMNS.put("Close", numeric(StockListing::close));
+        COLUMNS.put("Open", numeric(StockListing::open));
+        COLUMNS.put("High", numeric(StockListing::high));
+        COLUMNS.put("Low", numeric(StockListing::low));
+        COLUMNS.put("Volume", numeric(StockListing::volume));
+        COLUMNS.put("Date", Comparator.comparing(StockListing::date));
+    }
+
+    private final int size;
+    private final Map<String, int[]> orders = new LinkedHashMap<>();
+    private final Map<String, int[]> ranks = new LinkedHashMap<>();
+
+    StockSortIndex(List<StockListing> rows) {
+        this.size = rows.size();
+        for (Map.Entry<String, Comparator<StockListing>> e : COLUMNS.entrySet()) {
+            Comparator<StockListing> cmp = e.getValue();
+
+            // 값 오름차순, 같은 값은 행 순서 유지 (stable sort)
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) boxed[i] = i;
+            Arrays.sort(boxed, (a, b) -> cmp.compare(rows.get(a), rows.get(b)));
+
+            int[] order = new int[size];
+            int[] rank = new int[size];
+            int r = 0;
+            for (int i = 0; i < size; i++) {
+                order[i] = boxed[i];
+                if (i > 0 && cmp.compare(rows.get(boxed[i - 1]), rows.get(boxed[i])) != 0) r++;
+                rank[order[i]] = r;
+            }
+            orders.put(e.getKey(), order);
+            ranks.put(e.getKey(), rank);
+        }
+    }
+
+    /**
+     * sort 파라미터 파싱 (컬럼명 대소문자 무시)
+     * @throws IllegalArgumentException 정렬할 수 없는 컬럼
+     */
+    public static List<SortKey> parse(String sort) {
+        List<SortKey> keys = new ArrayList<>();
+        if (sort == null || sort.isBlank()) return keys;
+
+        for (String part : sort.split(";")) {
+            if (part.isBlank()) continue;
+            String[] kv = part.split(",");
+            String column = resolveColumn(kv[0].trim());
+            boolean desc = kv.length > 1 && "desc".equalsIgnoreCase(kv[1].trim());
+            keys.add(new SortKey(column, desc));
+        }
+        return keys;
+    }
+
+    private static String resolveColumn(String name) {
+        for (String c : COLUMNS.keySet()) {
+            if (c.equalsIgnoreCase(name)) return c;
+        }
+        throw new IllegalArgumentException("정렬할 수 없는 컬럼: " + name);
+    }
+
+    /**
+     * 정렬된 결과에서 [offset, offset+limit) 구간의 행 인덱스
+     * @param matches 검색 결과 행 인덱스 (null 이면 전체)
+     */
+    public int[] page(List<SortKey> keys, int[] matches, int offset, int limit) {
+        int total = matches == null ? size : matches.length;
+        int end = (int) Math.min((long) offset + limit, total);
+        if (offset >= end) return new int[0];
+
+        // 정렬 없음 → 원래 순서 그대로 잘라냄
+        if (keys.isEmpty()) {
+            int[] out = new int[end - offset];
+            for (int i = 0; i < out.length; i++) out[i] = matches == null ? offset + i : matches[offset + i];
+            return out;
+        }
+
+        boolean[] member = null;
+        if (matches != null) {
+            member = new boolean[size];
+            for (int row : matches) member[row] = true;
+        }
+
+        SortKey primary = keys.get(0);
+        int[] order = orders.get(primary.column());
+        int[] rank = ranks.get(primary.column());
+        List<SortKey> rest = keys.subList(1, keys.size());
+
+        int[] out = new int[end - offset];
+        int n = 0;       // out 에 채운 개수
+        int seen = 0;    // 지나온 매칭 행 수
+        int[] group = new int[16];
+
+        // 동순위 그룹 단위로 순회 (desc 는 그룹 순서만 뒤집고 그룹 안은 행 순서 유지)
+        int gi = primary.desc() ? size - 1 : 0;
+        while (n < out.length && gi >= 0 && gi < size) {
+            int gRank = rank[order[gi]];
+            int from = gi, to = gi;
+            if (primary.desc()) {
+                while (from - 1 >= 0 && rank[order[from - 1]] == gRank) from--;
+                gi = from - 1;
+            } else {
+                while (to + 1 < size && rank[order[to + 1]] == gRank) to++;
+                gi = to + 1;
+            }
+
+            int g = 0;
+            for (int i = from; i <= to; i++) {
+                int row = order[i];
+                if (member != null && !member[row]) continue;
+                if (g == group.length) group = Arrays.copyOf(group, g * 2);
+                group[g++] = row;
+            }
+            if (g == 0) continue;
+
+            // 그룹 전체가 offset 앞이면 정렬 없이 건너뜀
+            if (seen + g <= offset) {
+                seen += g;
+                continue;
+            }
+            if (g > 1 && !rest.isEmpty()) sortGroup(group, g, rest);
+
+            for (int i = 0; i < g && n < out.length; i++, seen++) {
+                if (seen >= offset) out[n++] = group[i];
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** 동순위 그룹을 나머지 키의 rank 로 정렬 (int 비교만) */
+    private void sortGroup(int[] group, int g, List<SortKey> rest) {
+        int[][] restRanks = new int[rest.size()][];
+        for (int k = 0; k < restRanks.length; k++) restRanks[k] = ranks.get(rest.get(k).column());
+
+        Integer[] boxed = new Integer[g];
+        for (int i = 0; i < g; i++) boxed[i] = group[i];
+        Arrays.sort(boxed, (a, b) -> {
+            for (int k = 0; k < restRanks.length; k++) {
+                int c = Integer.compare(restRanks[k][a], restRanks[k][b]);
+                if (c != 0) return rest.get(k).desc() ? -c : c;
+            }
+            return Integer.compare(a, b);
+        });
+        for (int i = 0; i < g; i++) group[i] = boxed[i];
+    }
+
+    private static Comparator<StockListing> numeric(ToLongFunction<StockListing> f) {
+        return Comparator.comparingLong(f);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mybaselinkV2.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TaskLogBuffer
+ * --------------------------------------------------------
+ * 작업별 고정 크기 로그 링버퍼 (lock-free)
+ * - append: seq 증가 + 슬롯 1개 교체 → 로그 길이와 무관한 O(1)
+ * - since(afterSeq): afterSeq 이후 새 줄만 반환
+ * - cursor(lines, afterSeq): 다음 조회 위치 = 실제로 돌려준 마지막 줄 (lastSeq() 는 아직 못 준 줄을 건너뛸 수 있음)
+ * - 용량을 넘으면 가장 오래된 줄부터 덮어씀
+ * --------------------------------------------------------
+ */
+public final class TaskLogBuffer {
+
+    /** 로그 한 줄 (seq 는 1부터 단조 증가) */
+    public record LogLine(long seq, String line) {}
+
+    private final int capacity;
+    private final AtomicReferenceArray<LogLine> slots;
+    private final AtomicLong seq = new AtomicLong();
+
+    public TaskLogBuffer(int capacity) {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /** 로그 추가 후 부여된 seq 반환 */
+    public long append(String line) {
+        long s = seq.incrementAndGet();
+        slots.set(slot(s), new LogLine(s, line));
+        return s;
+    }
+
+    /** 마지막으로 발급된 seq (0 = 로그 없음) */
+    public long lastSeq() {
+        return seq.get();
+    }
+
+    /**
+     * afterSeq 이후 로그 (최대 max 줄)
+     * - 이미 덮어쓴 줄은 건너뜀
+     * - seq 는 받았지만 아직 슬롯에 안 쓰인 줄에서 멈춤 → 다음 조회 때 이어서
+     */
+    public List<LogLine> since(long afterSeq, int max) {
+        long head = seq.get();
+        if (afterSeq >= head || max <= 0) return List.of();
+        long from = Math.max(Math.max(afterSeq, 0) + 1, head - capacity + 1);
+
+        List<LogLine> out = new ArrayList<>((int) Math.min(head - from + 1, max));
+        for (long s = from; s <= head && out.size() < max; s++) {
+            LogLine line = slots.get(slot(s));
+            if (line == null || line.seq() < s) break;
+            if (line.seq() > s) continue;
+            out.add(line);
+        }
+        return out;
+    }
+
+    /**
+     * since() 결과 다음 조회 위치
+     * - 돌려준 줄이 있으면 마지막 줄 seq
+     * - 없으면 afterSeq 그대로 (since 가 아직 안 쓰인 슬롯에서 멈췄을 수 있음)
+     *   단, afterSeq 가 발급된 적 없는 seq 면 lastSeq() 로 되돌림
+     */
+    public long cursor(List<LogLine> lines, long afterSeq) {
+        if (!lines.isEmpty()) return lines.get(lines.size() - 1).seq();
+        return Math.max(0, Math.min(afterSeq, seq.get()));
+    }
+
+    private int slot(long s) {
+        return (int) ((s - 1) % capacity);
+    }
+}
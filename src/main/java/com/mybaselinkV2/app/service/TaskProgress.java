@@ -0,0 +1,250 @@
+package com.mybaselinkV2.app.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TaskProgress
+ * --------------------------------------------------------
+ * 작업별 진행 상태 (copy-on-publish)
+ * - 출력 읽기 스레드가 필드를 제자리 갱신 → 줄마다 객체/Map 생성 없음
+ * - 조회용 View(불변)는 publishIntervalMs 마다 최대 1번만 새로 만들어 volatile 로 교체
+ * - 단계(phase) 변경/완료/취소는 간격과 무관하게 즉시 게시
+ * - 조회 쪽은 lock 없이 view() → 진행률/저장/전체 값이 항상 한 시점의 조합
+ * - 샤드 실행: 목록 단계(0~LISTING_WEIGHT%) + 샤드별 저장 건수 합계로 전체 진행률 계산
+ * - 이어하기(resume): 체크포인트로 건너뛴 종목 / 실패 재시도 / 신규 종목 수를 따로 표시
+ * --------------------------------------------------------
+ */
+public final class TaskProgress {
+
+    /** 샤드 1개 상태 (status: PENDING / RUNNING / RETRYING / DONE / FAILED) */
+    public record ShardView(int shard, String status, int saved, int total, int attempts) {}
+
+    /** 이어하기 정보 (skipped: 이미 완료, retryFailed: 지난 실행 실패분, fresh: 처음 받는 종목) */
+    public record ResumeView(int skipped, int retryFailed, int fresh) {}
+
+    /** 조회용 불변 스냅샷 */
+    public record View(double progress, String message, String phase,
+                       double krxPct, int dataSaved, int dataTotal, int failed,
+                       List<ShardView> shards, ResumeView resume) {
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("progress", progress);
+            m.put("message", message);
+            m.put("phase", phase);
+            m.put("krxPct", krxPct);
+            m.put("dataSaved", dataSaved);
+            m.put("dataTotal", dataTotal);
+            m.put("failed", failed);
+            if (!shards.isEmpty()) m.put("shards", shards);
+            if (resume != null) m.put("resume", resume);
+            return m;
+        }
+    }
+
+    /** 샤드 실행 시 목록 단계가 차지하는 전체 진행률 비중 (%) */
+    public static final double LISTING_WEIGHT = 20.0;
+
+    private static final class Shard {
+        String status = "PENDING";
+        int saved;
+        int total;
+        int attempts;
+    }
+
+    private final long publishIntervalNanos;
+
+    // 쓰기 전용 필드 (synchronized 메서드 안에서만 접근)
+    private double progress;
+    private String message;
+    private String phase;
+    private double krxPct;
+    private int dataSaved;
+    private int dataTotal;
+    private int failed;
+    private ResumeView resume;
+    private boolean pending;
+    private long lastPublishNanos;
+    private Shard[] shards = new Shard[0];
+
+    private volatile View view;
+
+    public TaskProgress(long publishIntervalMs, String message) {
+        this.publishIntervalNanos = publishIntervalMs * 1_000_000L;
+        this.message = message;
+        this.view = snapshot();
+        this.lastPublishNanos = System.nanoTime();
+    }
+
+    /** 최근 게시된 스냅샷 */
+    public View view() {
+        return view;
+    }
+
+    /**
+     * 진행 이벤트 반영
+     * @return 새 View 를 게시했으면 true
+     */
+    public synchronized boolean update(ProgressLineParser.ProgressEvent ev) {
+        boolean phaseChanged = ev.phase != null && !ev.phase.equals(phase);
+        if (ev.phase != null) phase = ev.phase;
+        if (ev.hasPct()) progress = ev.pct;
+        if (ev.msg != null) message = ev.msg;
+        if (ev.hasCount()) {
+            dataSaved = ev.saved;
+            dataTotal = ev.total;
+        }
+        applyKrx(ev);
+        pending = true;
+        return phaseChanged ? publish() : publishIfDue();
+    }
+
+    /** 목록 단계 이벤트 (스크립트 진행률을 0~LISTING_WEIGHT 로 축소) */
+    public synchronized boolean updateListing(ProgressLineParser.ProgressEvent ev) {
+        boolean phaseChanged = !"listing".equals(phase);
+        phase = "listing";
+        if (ev.hasPct()) progress = Math.min(ev.pct, 100.0) * LISTING_WEIGHT / 100.0;
+        if (ev.msg != null) message = ev.msg;
+        krxPct = Math.max(krxPct, 30.0);
+        pending = true;
+        return phaseChanged ? publish() : publishIfDue();
+    }
+
+    /** 이어하기 실행 표시 (startShards 전에 호출) */
+    public synchronized void resumeFrom(int skipped, int retryFailed, int fresh) {
+        resume = new ResumeView(skipped, retryFailed, fresh);
+        phase = "resume";
+        krxPct = 100.0;
+        message = "이어하기: 완료 " + skipped + " 건너뜀, 실패 재시도 " + retryFailed + ", 신규 " + fresh;
+        publish();
+    }
+
+    /** 종목 단위 실패 수 (체크포인트 기준, 재시도 성공 시 줄어듦) */
+    public synchronized boolean failedSymbols(int count) {
+        if (count == failed) return false;
+        failed = count;
+        pending = true;
+        return publishIfDue();
+    }
+
+    /** 샤드 단계 시작 (샤드별 종목 수) */
+    public synchronized void startShards(int[] sizes) {
+        shards = new Shard[sizes.length];
+        int total = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            shards[i] = new Shard();
+            shards[i].total = sizes[i];
+            total += sizes[i];
+        }
+        phase = "symbols";
+        krxPct = 100.0;
+        progress = LISTING_WEIGHT;
+        dataSaved = 0;
+        dataTotal = total;
+        message = (resume != null ? "남은 종목 " : "종목 데이터 ") + sizes.length + "개 샤드로 다운로드 시작";
+        publish();
+    }
+
+    /** 샤드 진행 이벤트 (저장 건수만 반영 → 전체 합계로 진행률 재계산) */
+    public synchronized boolean updateShard(int shard, ProgressLineParser.ProgressEvent ev) {
+        if (ev.saved < 0) return publishIfDue();
+        Shard s = shards[shard];
+        s.saved = Math.min(ev.saved, s.total);
+        recomputeShardTotals();
+        pending = true;
+        return publishIfDue();
+    }
+
+    /** 샤드 상태 변경 (즉시 게시) */
+    public synchronized void shardStatus(int shard, String status, int attempts) {
+        Shard s = shards[shard];
+        s.status = status;
+        s.attempts = attempts;
+        if ("RETRYING".equals(status)) s.saved = 0; // 재시도는 처음부터 다시 셈
+        if ("DONE".equals(status)) s.saved = s.total;
+        recomputeShardTotals();
+        publish();
+    }
+
+    private void recomputeShardTotals() {
+        int saved = 0;
+        for (Shard s : shards) saved += s.saved;
+        dataSaved = saved;
+        progress = dataTotal > 0 ? LISTING_WEIGHT + (100.0 - LISTING_WEIGHT) * saved / dataTotal : LISTING_WEIGHT;
+        message = "종목 저장 " + saved + "/" + dataTotal;
+    }
+
+    /** 보류 중인 변경이 있고 게시 간격이 지났으면 게시 */
+    public synchronized boolean publishIfDue() {
+        if (!pending || System.nanoTime() - lastPublishNanos < publishIntervalNanos) return false;
+        return publish();
+    }
+
+    /** 간격과 무관하게 보류 중인 변경 게시 */
+    public synchronized boolean flush() {
+        return pending && publish();
+    }
+
+    /** 완료 (전체/KRX 100%) */
+    public synchronized View complete(String msg) {
+        progress = 100;
+        krxPct = 100;
+        phase = "done";
+        message = msg;
+        publish();
+        return view;
+    }
+
+    /** 취소 (진행률 0, 나머지 유지) */
+    public synchronized View cancel(String msg) {
+        progress = 0;
+        message = msg;
+        publish();
+        return view;
+    }
+
+    private boolean publish() {
+        view = snapshot();
+        pending = false;
+        lastPublishNanos = System.nanoTime();
+        return true;
+    }
+
+    private View snapshot() {
+        List<ShardView> shardViews = List.of();
+        if (shards.length > 0) {
+            shardViews = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                Shard s = shards[i];
+                shardViews.add(new ShardView(i + 1, s.status, s.saved, s.total, s.attempts));
+            }
+            shardViews = List.copyOf(shardViews);
+        }
+        return new View(progress, message, phase, krxPct, dataSaved, dataTotal, failed, shardViews, resume);
+    }
+
+    /**
+     * KRX 목록 단계 진행률
+     * - v1: phase 로 판단 (listing 중 30%, 이후 단계면 100%)
+     * - 레거시: phase 가 없어 메시지 문구로 추정
+     */
+    private void applyKrx(ProgressLineParser.ProgressEvent ev) {
+        if (ev.phase != null) {
+            switch (ev.phase) {
+                case "listing" -> krxPct = Math.max(krxPct, 30.0);
+                case "symbols", "done" -> krxPct = 100.0;
+                default -> { }
+            }
+            return;
+        }
+        String msg = ev.msg == null ? "" : ev.msg;
+        if (msg.contains("KRX") && msg.contains("다운로드")) {
+            krxPct = Math.max(krxPct, 30.0);
+        } else if (msg.contains("KRX") && (msg.contains("로드됨") || msg.contains("저장 완료") || msg.contains("완료"))) {
+            krxPct = 100.0;
+        }
+    }
+}
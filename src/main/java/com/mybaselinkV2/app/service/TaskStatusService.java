@@ -1,48 +1,110 @@
 package com.mybaselinkV2.app.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * ✅ TaskStatusService (싱글턴 공유형, 실시간 진행률 + 로그 완전반영)
- * 모든 스레드(Async 포함)에서 동일 인스턴스 접근 가능하도록 static 캐시 사용
+ * - 진행/대기 중(IN_PROGRESS, QUEUED) 작업은 만료 없음, 크기 제한에서도 제외 (무게 0)
+ * - 끝난 작업은 retention-minutes 동안 조회 가능 후 자동 제거
+ * - 끝난 작업이 max-size 를 넘으면 Caffeine 정책(W-TinyLFU: 자주 조회되지 않는 항목 우선)으로 제거
+ *   → 진행 중 작업의 로그/진행 상태가 실행 도중 정리되지 않고, 장기 실행에도 힙 일정
  */
 @Service
 public class TaskStatusService {
 
     private static final Logger log = LoggerFactory.getLogger(TaskStatusService.class);
 
-    // ✅ 모든 쓰레드 공유되는 전역 상태 저장소
-    private static final Map<String, TaskStatus> TASK_MAP = new ConcurrentHashMap<>();
+    // ✅ 모든 쓰레드 공유되는 상태 저장소 (만료/크기 제한)
+    private final Cache<String, TaskStatus> tasks;
+
+    // 제거 통계 + 제거 알림 (작업별 부가 상태 정리용)
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public TaskStatusService(@Value("${application.batch.task.retention-minutes:60}") long retentionMinutes,
+                             @Value("${application.batch.task.max-size:1000}") long maxSize) {
+        long retentionNanos = Duration.ofMinutes(retentionMinutes).toNanos();
+        this.tasks = Caffeine.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((String key, TaskStatus value) -> value.isFinished() ? 1 : 0) // 끝난 작업만 크기 제한 대상
+                .expireAfter(new Expiry<String, TaskStatus>() {
+                    @Override
+                    public long expireAfterCreate(String key, TaskStatus value, long currentTime) {
+                        return value.isFinished() ? retentionNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TaskStatus value, long currentTime, long currentDuration) {
+                        return value.isFinished() ? retentionNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TaskStatus value, long currentTime, long currentDuration) {
+                        return currentDuration; // 조회로는 연장하지 않음
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler()) // 요청이 없어도 만료 시점에 제거
+                .executor(Runnable::run)                // 제거 알림은 정리 스레드에서 바로 처리 (가벼운 작업만)
+                .removalListener((String taskId, TaskStatus value, RemovalCause cause) -> onRemoval(taskId, cause))
+                .build();
+    }
+
+    private void onRemoval(String taskId, RemovalCause cause) {
+        if (cause == RemovalCause.EXPIRED) expiredCount.incrementAndGet();
+        else if (cause == RemovalCause.SIZE) evictedCount.incrementAndGet();
+        else if (cause == RemovalCause.REPLACED) return;
+
+        log.debug("[{}] 작업 상태 제거 ({})", taskId, cause);
+        for (Consumer<String> l : removalListeners) {
+            try {
+                l.accept(taskId);
+            } catch (Exception e) {
+                log.warn("[{}] 제거 알림 처리 오류: {}", taskId, e.getMessage());
+            }
+        }
+    }
 
-    /** 상태 설정 */
+    /** 작업 상태가 제거될 때 호출 (작업별 로그/진행 상태를 함께 정리) */
+    public void addRemovalListener(Consumer<String> listener) {
+        removalListeners.add(listener);
+    }
+
+    /** 상태 설정 (갱신할 때마다 만료 시간 / 무게 재계산) */
     public void setTaskStatus(String taskId, TaskStatus status) {
         if (taskId == null || status == null) return;
-        TaskStatus existing = TASK_MAP.get(taskId);
-        if (existing != null) {
-            existing.setStatus(status.getStatus());
-            existing.setResult(status.getResult());
-            existing.setErrorMessage(status.getErrorMessage());
-            existing.setUpdatedAt(Instant.now());
-        } else {
-            TASK_MAP.put(taskId, status);
-        }
+        tasks.asMap().compute(taskId, (k, existing) -> {
+            if (existing == null) return status;
+            existing.apply(status);
+            return existing;
+        });
     }
 
     /** 상태 조회 */
     public TaskStatus getTaskStatus(String taskId) {
-        return TASK_MAP.get(taskId);
+        return tasks.getIfPresent(taskId);
     }
 
     /** 로그 추가 */
     public void appendLog(String taskId, String line) {
         if (taskId == null || line == null) return;
-        TASK_MAP.compute(taskId, (k, v) -> {
+        tasks.asMap().compute(taskId, (k, v) -> {
             if (v == null) v = new TaskStatus("IN_PROGRESS", null, null);
             v.addLog(line);
             return v;
@@ -51,22 +113,39 @@ public class TaskStatusService {
 
     /** 전체 상태 보기 (디버그용) */
     public Map<String, TaskStatus> getAllTasks() {
-        return TASK_MAP;
+        return tasks.asMap();
     }
 
     /** 상태 제거 */
     public void removeTask(String taskId) {
-        TASK_MAP.remove(taskId);
+        tasks.invalidate(taskId);
+    }
+
+    /**
+     * 저장소 통계
+     * - live: 보관 중 (running: 그중 진행 중)
+     * - expired: 보관 기간 경과로 제거 / evicted: 끝난 작업이 max-size 초과로 제거
+     */
+    public Map<String, Object> getStats() {
+        tasks.cleanUp(); // 만료 대기 항목 먼저 정리 → 정확한 건수
+        ConcurrentMap<String, TaskStatus> map = tasks.asMap();
+        long running = map.values().stream().filter(t -> !t.isFinished()).count();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("live", map.size());
+        stats.put("running", running);
+        stats.put("expired", expiredCount.get());
+        stats.put("evicted", evictedCount.get());
+        return stats;
     }
 
     // ==================================
     // 내부 데이터 구조
     // ==================================
     public static class TaskStatus {
-        private String status; // IN_PROGRESS, COMPLETED, FAILED, CANCELLED
-        private Map<String, Object> result;
-        private String errorMessage;
-        private Instant updatedAt;
+        private volatile String status; // QUEUED, IN_PROGRESS, COMPLETED, FAILED, CANCELLED
+        private volatile Map<String, Object> result;
+        private volatile String errorMessage;
+        private volatile Instant updatedAt;
         private final List<LogEntry> logs = Collections.synchronizedList(new ArrayList<>());
         private int logSeq = 0;
 
@@ -83,6 +162,19 @@ public class TaskStatusService {
             if (logs.size() > 3000) logs.subList(0, 1000).clear(); // 오래된 로그 제거
         }
 
+        /** 상태/결과/오류를 한 번에 교체 (로그는 유지) */
+        public synchronized void apply(TaskStatus src) {
+            this.status = src.status;
+            this.result = src.result;
+            this.errorMessage = src.errorMessage;
+            this.updatedAt = Instant.now();
+        }
+
+        /** 끝난 작업 (보관 기간 만료 대상) */
+        public boolean isFinished() {
+            return "COMPLETED".equals(status) || "FAILED".equals(status) || "CANCELLED".equals(status);
+        }
+
         // === getters ===
         public String getStatus() { return status; }
         public Map<String, Object> getResult() { return result; }
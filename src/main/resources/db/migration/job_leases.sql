@@ -0,0 +1,16 @@
+-- ==========================================================================
+-- job_leases: 노드 간 작업 리스 (LeaseService, PostgreSQL)
+-- - 새 버전 배포 전에 1회 실행 (여러 번 실행해도 안전)
+-- - 컬럼은 JobLeaseEntity 와 동일 (Instant → timestamptz)
+-- - 행은 리스 이름마다 1개, 처음 tryAcquire / runOnce 할 때 INSERT
+-- ==========================================================================
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    name          VARCHAR(100)                NOT NULL,
+    owner         VARCHAR(100)                NOT NULL,
+    fencing_token BIGINT                      NOT NULL,
+    expires_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    acquired_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    renewed_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_job_leases PRIMARY KEY (name)
+);
@@ -0,0 +1,44 @@
+-- ==========================================================================
+-- jwt_tokens: 토큰 원문(500자) unique 인덱스 → SHA-256(32바이트) 키 이관 (PostgreSQL 11+)
+-- - 새 버전 배포 전에 1회 실행 (여러 번 실행해도 안전)
+-- - 남은 행은 앱 시작 시 JwtTokenCleanupScheduler.backfillTokenHashes 가 채움
+-- ==========================================================================
+
+-- 1) 해시 컬럼 추가
+ALTER TABLE jwt_tokens ADD COLUMN IF NOT EXISTS token_hash BYTEA;
+
+-- 2) 기존 행 채움 (앱과 같은 값: UTF-8 바이트의 SHA-256)
+UPDATE jwt_tokens SET token_hash = sha256(convert_to(token, 'UTF8')) WHERE token_hash IS NULL;
+
+-- 3) 고정 길이 unique 인덱스
+CREATE UNIQUE INDEX IF NOT EXISTS ux_jwt_tokens_token_hash ON jwt_tokens (token_hash);
+
+-- 4) token 원문 unique 제약 / 인덱스 제거 (이름은 환경마다 다르므로 조회해서 삭제)
+DO $$
+DECLARE r record;
+BEGIN
+    FOR r IN
+        SELECT con.conname
+          FROM pg_constraint con
+          JOIN pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = ANY (con.conkey)
+         WHERE con.conrelid = 'jwt_tokens'::regclass
+           AND con.contype = 'u'
+           AND array_length(con.conkey, 1) = 1
+           AND a.attname = 'token'
+    LOOP
+        EXECUTE format('ALTER TABLE jwt_tokens DROP CONSTRAINT %I', r.conname);
+    END LOOP;
+
+    FOR r IN
+        SELECT i.relname
+          FROM pg_index x
+          JOIN pg_class i ON i.oid = x.indexrelid
+          JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = x.indkey[0]
+         WHERE x.indrelid = 'jwt_tokens'::regclass
+           AND x.indnatts = 1
+           AND NOT x.indisprimary
+           AND a.attname = 'token'
+    LOOP
+        EXECUTE format('DROP INDEX IF EXISTS %I', r.relname);
+    END LOOP;
+END $$;
@@ -0,0 +1,33 @@
+-- ==========================================================================
+-- stock_batch_jobs: 종목 일괄 업데이트 작업 큐 (StockBatchJobQueue, PostgreSQL)
+-- - 새 버전 배포 전에 1회 실행 (여러 번 실행해도 안전)
+-- - 컬럼은 StockBatchJobEntity 와 동일 (Instant → timestamptz)
+-- ==========================================================================
+
+CREATE TABLE IF NOT EXISTS stock_batch_jobs (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    task_id          VARCHAR(36)                 NOT NULL,
+    status           VARCHAR(20)                 NOT NULL,
+    force            BOOLEAN                     NOT NULL,
+    workers          INTEGER                     NOT NULL,
+    shards           INTEGER                     NOT NULL,
+    resume           BOOLEAN                     NOT NULL,
+    priority         INTEGER                     NOT NULL,
+    requested_by     VARCHAR(50)                 NOT NULL,
+    requesters       INTEGER                     NOT NULL,
+    created_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    started_at       TIMESTAMP(6) WITH TIME ZONE,
+    finished_at      TIMESTAMP(6) WITH TIME ZONE,
+    cancel_requested BOOLEAN                     NOT NULL DEFAULT FALSE,
+    queue_key        VARCHAR(40),
+    CONSTRAINT pk_stock_batch_jobs PRIMARY KEY (id),
+    CONSTRAINT ux_stock_batch_jobs_task_id UNIQUE (task_id)
+);
+
+-- 대기/실행 작업 조회 (findByStatus...), 기록 정리 / 등록 순서
+CREATE INDEX IF NOT EXISTS idx_stock_batch_jobs_status ON stock_batch_jobs (status);
+CREATE INDEX IF NOT EXISTS idx_stock_batch_jobs_created ON stock_batch_jobs (created_at);
+
+-- 같은 옵션의 대기 작업은 1건 (QUEUED 동안만 값, 그 외 NULL → NULL 끼리는 중복 허용)
+ALTER TABLE stock_batch_jobs ADD COLUMN IF NOT EXISTS queue_key VARCHAR(40);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_stock_batch_jobs_queue_key ON stock_batch_jobs (queue_key);
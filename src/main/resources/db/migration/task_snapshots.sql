@@ -0,0 +1,22 @@
+-- ==========================================================================
+-- task_snapshots: 노드 간 공유 작업 상태 (SharedTaskStatusStore, PostgreSQL)
+-- - 새 버전 배포 전에 1회 실행 (여러 번 실행해도 안전)
+-- - 컬럼은 TaskSnapshotEntity 와 동일 (result_json / logs_json 은 TEXT)
+-- ==========================================================================
+
+CREATE TABLE IF NOT EXISTS task_snapshots (
+    task_id           VARCHAR(36)                 NOT NULL,
+    status            VARCHAR(20)                 NOT NULL,
+    result_json       TEXT,
+    error_message     VARCHAR(1000),
+    logs_json         TEXT,
+    last_seq          BIGINT                      NOT NULL,
+    node              VARCHAR(100)                NOT NULL,
+    status_updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    written_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    finished          BOOLEAN                     NOT NULL,
+    CONSTRAINT pk_task_snapshots PRIMARY KEY (task_id)
+);
+
+-- 끝난 스냅샷 정리 (deleteAllByFinishedTrueAndWrittenAtBefore)
+CREATE INDEX IF NOT EXISTS idx_task_snapshots_written ON task_snapshots (written_at);
@@ -0,0 +1,109 @@
+package com.mybaselinkV2.app.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.entity.LoginUserEntity;
+import com.mybaselinkV2.app.jwt.JwtAuthCache;
+import com.mybaselinkV2.app.jwt.JwtClaims;
+import com.mybaselinkV2.app.jwt.JwtTokenProvider;
+import com.mybaselinkV2.app.repository.JwtTokenRepository;
+import com.mybaselinkV2.app.repository.LoginUserRepository;
+import com.mybaselinkV2.app.service.CustomUserDetailsService;
+
+import io.jsonwebtoken.Jwts;
+
+/**
+ * ⏱ 요청 1건 인증 비용 (DB 제외, CPU 만)
+ * - legacy: 예전 경로 → 호출마다 parserBuilder + 키 재생성, 서명 검증 3번
+ *   (validateToken, getUsername → getClaims, getRoles → getClaims: current 와 같이 사용자 + 권한까지 꺼냄)
+ * - current: 캐시된 SecretKey/JwtParser 로 1번 파싱 + JwtAuthCache 조회
+ *
+ * 실행: IDE 에서 main() 또는
+ *   mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.mybaselinkV2.app.benchmark.JwtAuthBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "MyNovaSecretKeyChangeThisToSomethingStrong123!";
+
+    private JwtTokenProvider provider;
+    private JwtAuthCache authCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtTokenRepository tokens = mock(JwtTokenRepository.class);
+        LoginUserRepository users = mock(LoginUserRepository.class);
+        LoginUserEntity user = mock(LoginUserEntity.class);
+        when(user.getUsername()).thenReturn("bench");
+        when(user.getPassword()).thenReturn("x");
+        when(user.getRole()).thenReturn("ROLE_USER");
+        when(users.findByUsername("bench")).thenReturn(Optional.of(user));
+
+        authCache = new JwtAuthCache(tokens, new CustomUserDetailsService(users),
+                new ConcurrentMapCacheManager(JwtAuthCache.TOKENS, JwtAuthCache.USERS));
+        provider = new JwtTokenProvider(tokens, authCache, SECRET);
+        ReflectionTestUtils.setField(provider, "accessExpirationMillis", 3_600_000L);
+
+        token = provider.generateAccessToken("bench", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        JwtTokenEntity saved = new JwtTokenEntity(token, "bench", Instant.now().plusSeconds(3600));
+        when(tokens.findByToken(token)).thenReturn(Optional.of(saved));
+        authCache.user("bench"); // 캐시 워밍
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        // validateToken
+        bh.consume(Jwts.parserBuilder().setSigningKey(SECRET.getBytes()).build().parseClaimsJws(token));
+        // getUsername → getClaims
+        bh.consume(Jwts.parserBuilder().setSigningKey(SECRET.getBytes()).build()
+                .parseClaimsJws(token).getBody().getSubject());
+        // getRoles → getClaims
+        bh.consume(Jwts.parserBuilder().setSigningKey(SECRET.getBytes()).build()
+                .parseClaimsJws(token).getBody().get("roles"));
+    }
+
+    @Benchmark
+    public void current(Blackhole bh) {
+        JwtClaims claims = provider.parse(token).orElseThrow();
+        bh.consume(authCache.isValid(token));
+        UserDetails user = authCache.user(claims.subject());
+        bh.consume(user);
+        bh.consume(claims.roles());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtAuthBenchmark.class.getSimpleName()).build()).run();
+    }
+}
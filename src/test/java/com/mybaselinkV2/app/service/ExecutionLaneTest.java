@@ -0,0 +1,83 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+class ExecutionLaneTest {
+
+    /** lane 의 자리를 모두 차지하고 release 될 때까지 붙잡는 스레드 */
+    private static Thread hold(ExecutionLane lane, CountDownLatch started, CountDownLatch release) {
+        Thread t = Thread.ofVirtual().start(() -> {
+            try {
+                lane.call(remaining -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Exception ignore) {}
+        });
+        return t;
+    }
+
+    @Test
+    void fullLaneRejectsBeyondQueueAndTimesOutWaiters() throws Exception {
+        ExecutionLane lane = new ExecutionLane("analysis", 1, 0, Duration.ofMillis(200));
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        Thread holder = hold(lane, started, release);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // 대기 허용 0 → 즉시 거절
+        assertThrows(ExecutionLane.LaneFullException.class, () -> lane.call(r -> "x"));
+
+        ExecutionLane queued = new ExecutionLane("interactive", 1, 1, Duration.ofMillis(100));
+        CountDownLatch started2 = new CountDownLatch(1);
+        Thread holder2 = hold(queued, started2, release);
+        assertTrue(started2.await(5, TimeUnit.SECONDS));
+        // 대기 1건 허용 → 시간 한도 안에 자리가 안 나면 TimeoutException
+        assertThrows(TimeoutException.class, () -> queued.call(r -> "x"));
+
+        release.countDown();
+        holder.join();
+        holder2.join();
+
+        Map<String, Object> stats = lane.stats();
+        assertEquals(1L, stats.get("rejected"));
+        assertEquals(1L, stats.get("completed"));
+        assertEquals(1L, queued.stats().get("timedOut"));
+        assertEquals(0, stats.get("active"));
+    }
+
+    @Test
+    void busyLaneDoesNotBlockOtherLane() throws Exception {
+        ExecutionLane analysis = new ExecutionLane("analysis", 1, 4, Duration.ofSeconds(5));
+        ExecutionLane interactive = new ExecutionLane("interactive", 1, 4, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        Thread holder = hold(analysis, started, release);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // analysis 가 꽉 차 있어도 interactive 는 바로 실행, 남은 시간도 전달됨
+        long remaining = interactive.call(r -> r);
+        assertTrue(remaining > Duration.ofSeconds(4).toNanos());
+
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    void percentileNearestRank() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < 100; i++) sorted[i] = i + 1;
+        assertEquals(50, ExecutionLane.percentile(sorted, 50));
+        assertEquals(99, ExecutionLane.percentile(sorted, 99));
+        assertEquals(0, ExecutionLane.percentile(new long[0], 99));
+    }
+}
@@ -0,0 +1,71 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.entity.LoginUserEntity;
+import com.mybaselinkV2.app.jwt.JwtAuthCache;
+import com.mybaselinkV2.app.repository.JwtTokenRepository;
+import com.mybaselinkV2.app.repository.LoginUserRepository;
+
+class JwtAuthCacheTest {
+
+    JwtTokenRepository tokens;
+    LoginUserRepository users;
+    JwtAuthCache cache;
+
+    @BeforeEach
+    void setUp() {
+        tokens = mock(JwtTokenRepository.class);
+        users = mock(LoginUserRepository.class);
+        cache = new JwtAuthCache(tokens, new CustomUserDetailsService(users),
+                new ConcurrentMapCacheManager(JwtAuthCache.TOKENS, JwtAuthCache.USERS));
+    }
+
+    @Test
+    void warmLookupsDoNotHitRepository() {
+        JwtTokenEntity e = new JwtTokenEntity("tok", "alice", Instant.now().plusSeconds(60));
+        when(tokens.findByToken("tok")).thenReturn(Optional.of(e));
+        LoginUserEntity u = mock(LoginUserEntity.class);
+        when(u.getUsername()).thenReturn("alice");
+        when(u.getPassword()).thenReturn("{bcrypt}hash");
+        when(u.getRole()).thenReturn("ROLE_USER");
+        when(users.findByUsername("alice")).thenReturn(Optional.of(u));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(cache.isValid("tok"));
+            assertEquals("ROLE_USER", cache.user("alice").getAuthorities().iterator().next().getAuthority());
+        }
+        verify(tokens, times(1)).findByToken("tok");
+        verify(users, times(1)).findByUsername("alice");
+        assertEquals("", cache.user("alice").getPassword());
+    }
+
+    @Test
+    void unknownTokenIsNegativelyCachedAndRevokeTakesEffectImmediately() {
+        when(tokens.findByToken("forged")).thenReturn(Optional.empty());
+        assertFalse(cache.isValid("forged"));
+        assertFalse(cache.isValid("forged"));
+        verify(tokens, times(1)).findByToken("forged");
+
+        JwtTokenEntity e = new JwtTokenEntity("tok", "alice", Instant.now().plusSeconds(60));
+        cache.put(e);
+        assertTrue(cache.isValid("tok"));
+        cache.revoke("tok", Optional.of(e));
+        assertFalse(cache.isValid("tok"));
+        verify(tokens, times(0)).findByToken("tok");
+    }
+}
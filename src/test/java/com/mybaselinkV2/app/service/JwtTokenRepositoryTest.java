@@ -0,0 +1,58 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mybaselinkV2.app.entity.JwtTokenEntity;
+import com.mybaselinkV2.app.jwt.TokenHashes;
+import com.mybaselinkV2.app.repository.JwtTokenRepository;
+import com.mybaselinkV2.app.scheduler.JwtTokenCleanupScheduler;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JwtTokenRepositoryTest {
+
+    @Autowired JwtTokenRepository repository;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    void lookupIsByFixedSizeHash() {
+        repository.deleteAll();
+        String token = "a".repeat(480);
+        repository.save(new JwtTokenEntity(token, "alice", Instant.now().plusSeconds(60)));
+
+        JwtTokenEntity found = repository.findByToken(token).orElseThrow();
+        assertEquals(32, found.getTokenHash().length);
+        assertArrayEquals(TokenHashes.sha256(token), found.getTokenHash());
+        assertTrue(repository.findByToken(token + "x").isEmpty());
+    }
+
+    @Test
+    void legacyRowsWithoutHashAreBackfilled() {
+        repository.deleteAll();
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp later = Timestamp.from(Instant.now().plusSeconds(60));
+        for (int i = 0; i < 3; i++) {
+            jdbc.update("insert into jwt_tokens (token, username, revoked, created_at, expires_at) values (?, ?, false, ?, ?)",
+                    "legacy-" + i, "bob", now, later);
+        }
+        assertTrue(repository.findByToken("legacy-1").isEmpty());
+
+        new JwtTokenCleanupScheduler(repository, mock(LeaseService.class)).backfillTokenHashes();
+
+        assertEquals("bob", repository.findByToken("legacy-1").orElseThrow().getUsername());
+        assertTrue(repository.findTop500ByTokenHashIsNull().isEmpty());
+    }
+}
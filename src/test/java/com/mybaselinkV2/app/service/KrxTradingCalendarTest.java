@@ -0,0 +1,59 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class KrxTradingCalendarTest {
+
+    private static KrxTradingCalendar at(String kstDateTime, String extra) {
+        ZonedDateTime now = ZonedDateTime.of(LocalDateTime.parse(kstDateTime), KrxTradingCalendar.KST);
+        return new KrxTradingCalendar(extra, LocalTime.of(16, 0), Clock.fixed(now.toInstant(), KrxTradingCalendar.KST));
+    }
+
+    @Test
+    void weekendsAndHolidays() {
+        KrxTradingCalendar cal = at("2025-10-10T12:00", "");
+        assertFalse(cal.isTradingDay(LocalDate.parse("2025-10-11")));   // 토
+        assertFalse(cal.isTradingDay(LocalDate.parse("2025-10-06")));   // 추석
+        assertTrue(cal.isTradingDay(LocalDate.parse("2025-10-10")));
+        // 추석 연휴 + 한글날 앞뒤
+        assertEquals(LocalDate.parse("2025-10-02"), cal.previousTradingDay(LocalDate.parse("2025-10-10")));
+        assertEquals(LocalDate.parse("2025-10-10"), cal.nextTradingDay(LocalDate.parse("2025-10-02")));
+    }
+
+    @Test
+    void expectedLastBarDate() {
+        // 거래일 장 마감 데이터 준비 전 → 직전 거래일, 이후 → 당일
+        assertEquals(LocalDate.parse("2025-10-02"), at("2025-10-10T15:59", "").expectedLastBarDate());
+        assertEquals(LocalDate.parse("2025-10-10"), at("2025-10-10T16:00", "").expectedLastBarDate());
+        // 주말 → 금요일
+        assertEquals(LocalDate.parse("2025-10-10"), at("2025-10-12T09:00", "").expectedLastBarDate());
+        // 임시 휴장일 추가
+        assertEquals(LocalDate.parse("2025-10-02"), at("2025-10-12T09:00", "2025-10-10").expectedLastBarDate());
+    }
+
+    @Test
+    void warnsWhenYearIsNotInHolidayFile() {
+        assertTrue(at("2026-10-17T09:00", "").coverageWarning().isEmpty());
+        // 12월 → 다음 해 목록 미리 확인
+        assertTrue(at("2026-12-01T09:00", "").coverageWarning().orElseThrow().contains("2027"));
+        assertTrue(at("2027-01-04T09:00", "").coverageWarning().orElseThrow().contains("2027"));
+        // 임시 휴장일만으로는 그 해 목록이 있다고 보지 않음
+        assertFalse(at("2027-01-04T09:00", "2027-01-05").coverageWarning().isEmpty());
+
+        ZonedDateTime now = ZonedDateTime.of(LocalDateTime.parse("2027-01-04T09:00"), KrxTradingCalendar.KST);
+        KrxTradingCalendar added = new KrxTradingCalendar(Set.of(LocalDate.parse("2027-01-01")), "",
+                LocalTime.of(16, 0), Clock.fixed(now.toInstant(), KrxTradingCalendar.KST));
+        assertTrue(added.coverageWarning().isEmpty());
+    }
+}
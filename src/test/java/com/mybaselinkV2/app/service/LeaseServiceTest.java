@@ -0,0 +1,102 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mybaselinkV2.app.entity.JobLeaseEntity;
+import com.mybaselinkV2.app.repository.JobLeaseRepository;
+
+/** 같은 DB 를 쓰는 두 노드(LeaseService 2개) */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaseServiceTest {
+
+    @Autowired JobLeaseRepository repository;
+    @Autowired PlatformTransactionManager txManager;
+
+    LeaseService nodeA, nodeB;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        nodeA = new LeaseService(repository, txManager, "node-a");
+        nodeB = new LeaseService(repository, txManager, "node-b");
+        ReflectionTestUtils.setField(nodeA, "scheduleHoldSeconds", 1L);
+        ReflectionTestUtils.setField(nodeB, "scheduleHoldSeconds", 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    void onlyOneHolderAndReleaseHandsOverWithNewToken() throws Exception {
+        LeaseService.Lease a = nodeA.tryAcquire("job", Duration.ofSeconds(3)).orElseThrow();
+        assertEquals(1, a.token());
+        assertTrue(nodeB.tryAcquire("job", Duration.ofSeconds(3)).isEmpty());
+
+        // 살아 있는 동안은 ttl 이 지나도 연장되어 뺏기지 않음
+        Thread.sleep(3500);
+        assertTrue(nodeB.tryAcquire("job", Duration.ofSeconds(3)).isEmpty());
+        assertTrue(a.isCurrent());
+
+        a.close();
+        LeaseService.Lease b = nodeB.tryAcquire("job", Duration.ofSeconds(3)).orElseThrow();
+        assertEquals(2, b.token());
+        assertFalse(a.isCurrent());
+        b.close();
+    }
+
+    @Test
+    void expiredHolderIsTakenOverAndNotifiedOfLoss() throws Exception {
+        LeaseService.Lease a = nodeA.tryAcquire("job", Duration.ofSeconds(3)).orElseThrow();
+        CountDownLatch lost = new CountDownLatch(1);
+        a.onLost(lost::countDown);
+
+        // 보유 노드 멈춤(GC/네트워크) → DB 상 만료
+        JobLeaseEntity row = repository.findById("job").orElseThrow();
+        row.setExpiresAt(Instant.now().minusSeconds(1));
+        repository.save(row);
+
+        Optional<LeaseService.Lease> b = nodeB.tryAcquire("job", Duration.ofSeconds(3));
+        assertTrue(b.isPresent());
+        assertEquals(2, b.get().token());
+
+        // 다음 연장 때 상실을 알아차리고 펜싱 확인도 실패
+        assertTrue(lost.await(5, TimeUnit.SECONDS));
+        assertFalse(a.isHeld());
+        assertFalse(a.isCurrent());
+        assertTrue(b.get().isCurrent());
+    }
+
+    @Test
+    void runOnceSkipsOtherNodesWithinHoldWindow() throws Exception {
+        int[] runs = new int[1];
+        assertTrue(nodeA.runOnce("cleanup", () -> runs[0]++));
+        assertFalse(nodeB.runOnce("cleanup", () -> runs[0]++));
+        assertEquals(1, runs[0]);
+
+        Thread.sleep(1200);
+        assertTrue(nodeB.runOnce("cleanup", () -> runs[0]++));
+        assertEquals(2, runs[0]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@EnabledOnOs(OS.LINUX)
+class ProcessSupervisorTest {
+
+    private static ProcessSupervisor supervisor(long stallSeconds) {
+        ProcessSupervisor s = new ProcessSupervisor(1);
+        ReflectionTestUtils.setField(s, "stallTimeoutSeconds", stallSeconds);
+        ReflectionTestUtils.setField(s, "killGraceMs", 500L);
+        return s;
+    }
+
+    @Test
+    void killTreeKillsDescendants() throws Exception {
+        ProcessSupervisor sup = supervisor(0);
+        try {
+            Process p = new ProcessBuilder("sh", "-c", "sleep 60 & sleep 60 & wait").start();
+            List<ProcessHandle> children = List.of();
+            for (int i = 0; i < 50 && children.size() < 2; i++) {
+                Thread.sleep(50);
+                children = p.toHandle().descendants().toList();
+            }
+            assertEquals(2, children.size());
+
+            sup.killTree(p);
+            assertTrue(p.waitFor(5, TimeUnit.SECONDS));
+            for (ProcessHandle c : children) {
+                c.onExit().get(5, TimeUnit.SECONDS);
+                assertFalse(c.isAlive());
+            }
+        } finally {
+            sup.shutdown();
+        }
+    }
+
+    @Test
+    void silentProcessIsKilledAsStalledAndAccounted() throws Exception {
+        ProcessSupervisor sup = supervisor(1);
+        try {
+            Process p = new ProcessBuilder("sleep", "60").start();
+            ProcessSupervisor.Supervised s = sup.register("t1", "", p);
+
+            assertTrue(p.waitFor(10, TimeUnit.SECONDS));
+            assertTrue(s.isStalled());
+            s.close();
+
+            Map<String, Object> usage = sup.usage("t1");
+            assertEquals(1, usage.get("processes"));
+            assertEquals(0, usage.get("running"));
+            assertEquals(1, usage.get("stalledKills"));
+        } finally {
+            sup.shutdown();
+        }
+    }
+}
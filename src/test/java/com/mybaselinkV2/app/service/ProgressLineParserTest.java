@@ -0,0 +1,71 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.mybaselinkV2.app.service.ProgressLineParser.Kind;
+import com.mybaselinkV2.app.service.ProgressLineParser.ProgressEvent;
+
+class ProgressLineParserTest {
+
+    private final ProgressLineParser parser = new ProgressLineParser(new JsonFactory());
+    private final ProgressEvent ev = new ProgressEvent();
+
+    @Test
+    void jsonLinesV1() {
+        assertTrue(parser.parse("{\"v\":1,\"phase\":\"symbols\",\"pct\":42.5,\"saved\":1200,\"total\":2900,\"level\":\"info\",\"msg\":\"종목 저장 1200/2900\"}", ev));
+        assertEquals(Kind.PROGRESS, ev.kind);
+        assertEquals("symbols", ev.phase);
+        assertEquals(42.5, ev.pct);
+        assertEquals(1200, ev.saved);
+        assertEquals(2900, ev.total);
+
+        assertTrue(parser.parse("{\"v\":1,\"phase\":\"symbols\",\"level\":\"warn\",\"msg\":\"000660 → 실패\"}", ev));
+        assertEquals(Kind.LOG, ev.kind);
+        assertEquals("warn", ev.level);
+        assertEquals("000660 → 실패", ev.msg);
+    }
+
+    @Test
+    void analyzerProgress() {
+        assertTrue(parser.parse("{\"mode\":\"progress\",\"progress_percent\":40,\"processed_symbols\":10,\"total_symbols\":25}", ev));
+        assertEquals(Kind.PROGRESS, ev.kind);
+        assertEquals(40.0, ev.pct);
+        assertEquals(10, ev.saved);
+        assertEquals(25, ev.total);
+    }
+
+    @Test
+    void legacyText() {
+        assertTrue(parser.parse("2025-10-27 10:00:00,123 - INFO - [PROGRESS] 65.0 종목 저장 1450 / 2900", ev));
+        assertEquals(Kind.PROGRESS, ev.kind);
+        assertEquals(65.0, ev.pct);
+        assertEquals(1450, ev.saved);
+        assertEquals(2900, ev.total);
+
+        assertTrue(parser.parse("[LOG] 실행 시작 (force=false, workers=8)", ev));
+        assertEquals(Kind.LOG, ev.kind);
+        assertEquals("실행 시작 (force=false, workers=8)", ev.msg);
+    }
+
+    @Test
+    void summaryAndNoise() {
+        assertTrue(parser.parse("{\"status\": \"completed\", \"success\": 2890, \"failed\": 10, \"total\": 2900}", ev));
+        assertEquals(Kind.RESULT, ev.kind);
+
+        // 중첩 error 객체 안의 v/pct/msg 는 최상위 필드로 읽지 않음
+        assertTrue(parser.parse("{\"error\": {\"v\": 1, \"pct\": 99, \"msg\": \"inner\", \"detail\": [1, {\"x\": 2}]}, \"total\": 5}", ev));
+        assertEquals(Kind.RESULT, ev.kind);
+        assertFalse(ev.hasPct());
+        assertEquals(5, ev.total);
+        assertNull(ev.msg);
+
+        assertFalse(parser.parse("Traceback (most recent call last):", ev));
+        assertFalse(parser.parse("{broken", ev));
+    }
+}
@@ -0,0 +1,55 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** 워커 기동 대기는 호출자 시간 한도까지만, 기동은 뒤에서 마저 진행 (python 대신 sh 로 느린 워커 흉내) */
+@EnabledOnOs(OS.LINUX)
+class PythonWorkerPoolTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void slowStartTimesOutAtCallerDeadlineAndWarmsInBackground() throws Exception {
+        Path script = dir.resolve("slow_worker.sh");
+        Files.writeString(script, "sleep 1\necho '{\"ready\": true}'\ncat > /dev/null\n");
+
+        ProcessSupervisor sup = new ProcessSupervisor(1);
+        PythonWorkerPool pool = new PythonWorkerPool(sup);
+        ReflectionTestUtils.setField(pool, "pythonExe", "sh");
+        ReflectionTestUtils.setField(pool, "workerScriptPath", script.toString());
+        ReflectionTestUtils.setField(pool, "poolSize", 1);
+        ReflectionTestUtils.setField(pool, "maxRequests", 200);
+        ReflectionTestUtils.setField(pool, "requestTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(pool, "startupTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(pool, "healthCheckSeconds", 60L);
+        try {
+            long t0 = System.nanoTime();
+            assertThrows(TimeoutException.class,
+                    () -> pool.execute("any.py", List.of(), TimeUnit.MILLISECONDS.toNanos(200)));
+            assertTrue(System.nanoTime() - t0 < TimeUnit.MILLISECONDS.toNanos(900)); // startup-timeout(60초)까지 붙잡지 않음
+
+            // 기동은 계속 → 준비되면 idle 로
+            for (int i = 0; i < 50 && (int) pool.getStats().get("idle") == 0; i++) Thread.sleep(100);
+            assertEquals(1, pool.getStats().get("idle"));
+            assertEquals(1, pool.getStats().get("live"));
+            assertEquals(1L, pool.getStats().get("started"));
+        } finally {
+            pool.shutdown();
+            sup.shutdown();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybaselinkV2.app.repository.JobLeaseRepository;
+import com.mybaselinkV2.app.repository.TaskSnapshotRepository;
+
+/** 같은 DB 를 쓰는 두 노드의 작업 상태 공유 */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SharedTaskStatusStoreTest {
+
+    @Autowired TaskSnapshotRepository repository;
+    @Autowired JobLeaseRepository leaseRepository;
+    @Autowired PlatformTransactionManager txManager;
+
+    LeaseService leaseA, leaseB;
+    SharedTaskStatusStore nodeA, nodeB;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        leaseA = new LeaseService(leaseRepository, txManager, "node-a");
+        leaseB = new LeaseService(leaseRepository, txManager, "node-b");
+        nodeA = store(leaseA);
+        nodeB = store(leaseB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+        leaseA.shutdown();
+        leaseB.shutdown();
+    }
+
+    private SharedTaskStatusStore store(LeaseService lease) {
+        // 주기 flush 는 길게 → 테스트에서 직접 flush()
+        SharedTaskStatusStore s = new SharedTaskStatusStore(repository, new ObjectMapper(), txManager, lease,
+                60_000, 60_000, 60);
+        ReflectionTestUtils.setField(s, "logTail", 2);
+        return s;
+    }
+
+    private static SharedTaskStatusStore.Snapshot snapshot(String status, long lastSeq, Instant at) {
+        List<TaskLogBuffer.LogLine> logs = List.of(
+                new TaskLogBuffer.LogLine(lastSeq - 2, "a"),
+                new TaskLogBuffer.LogLine(lastSeq - 1, "b"),
+                new TaskLogBuffer.LogLine(lastSeq, "c"));
+        return new SharedTaskStatusStore.Snapshot(status, Map.of("progress", 50), null, logs, lastSeq, at,
+                !"IN_PROGRESS".equals(status) && !"QUEUED".equals(status));
+    }
+
+    @Test
+    void burstOfChangesIsWrittenOnceAndReadByOtherNode() {
+        AtomicInteger built = new AtomicInteger();
+        nodeA.setSource(id -> {
+            built.incrementAndGet();
+            return Optional.of(snapshot("IN_PROGRESS", 10, Instant.now()));
+        });
+        for (int i = 0; i < 1000; i++) nodeA.markDirty("t1");
+        nodeA.flush();
+
+        assertEquals(1, built.get());
+        assertEquals(1L, nodeA.stats().get("written"));
+
+        SharedTaskStatusStore.Remote r = nodeB.read("t1").orElseThrow();
+        assertEquals("IN_PROGRESS", r.status());
+        assertEquals("node-a", r.node());
+        assertEquals(10, r.lastSeq());
+        assertEquals(List.of(9L, 10L), r.logs().stream().map(TaskLogBuffer.LogLine::seq).toList());
+        assertEquals(50, r.result().get("progress"));
+
+        // 캐시 기간 안의 반복 조회 → DB 조회 1번
+        for (int i = 0; i < 100; i++) nodeB.read("t1");
+        assertEquals(1L, nodeB.stats().get("dbReads"));
+    }
+
+    @Test
+    void olderStatusFromAnotherNodeDoesNotOverwrite() {
+        Instant queuedAt = Instant.now().minusSeconds(5);
+        Instant runningAt = Instant.now();
+
+        nodeA.setSource(id -> Optional.of(snapshot("IN_PROGRESS", 3, runningAt)));
+        nodeA.markDirty("t1");
+        nodeA.flush();
+
+        // 대기 등록 노드가 늦게 예전 QUEUED 상태를 씀 → 무시
+        nodeB.setSource(id -> Optional.of(snapshot("QUEUED", 0, queuedAt)));
+        nodeB.markDirty("t1");
+        nodeB.flush();
+
+        assertEquals(1L, nodeB.stats().get("skipped"));
+        assertEquals("IN_PROGRESS", repository.findById("t1").orElseThrow().getStatus());
+        assertTrue(nodeB.read("missing").isEmpty());
+    }
+}
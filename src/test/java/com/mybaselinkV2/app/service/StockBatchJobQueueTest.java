@@ -0,0 +1,153 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mybaselinkV2.app.entity.StockBatchJobEntity;
+import com.mybaselinkV2.app.repository.StockBatchJobRepository;
+
+/** 같은 DB 를 쓰는 두 노드의 대기열 (A: 실행 노드, B: 등록/취소만 받은 노드) */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockBatchJobQueueTest {
+
+    @Autowired StockBatchJobRepository repository;
+
+    StockBatchService batchA, batchB;
+    TaskStatusService statusA, statusB;
+    StockBatchJobQueue nodeA, nodeB;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        batchA = mock(StockBatchService.class);
+        batchB = mock(StockBatchService.class);
+        statusA = new TaskStatusService(60, 100);
+        statusB = new TaskStatusService(60, 100);
+        nodeA = queue(batchA, statusA);
+        nodeB = queue(batchB, statusB);
+    }
+
+    private StockBatchJobQueue queue(StockBatchService batch, TaskStatusService status) {
+        ExecutionLane lane = mock(ExecutionLane.class);
+        when(lane.maxQueue()).thenReturn(10);
+        ExecutionLanes lanes = mock(ExecutionLanes.class);
+        when(lanes.batch()).thenReturn(lane);
+        return new StockBatchJobQueue(repository, batch, status, mock(StockBatchEventHub.class),
+                lanes, mock(LeaseService.class));
+    }
+
+    private StockBatchJobEntity running(String taskId) {
+        StockBatchJobEntity job = new StockBatchJobEntity(taskId, false, 4, 1, false, 0, "tester");
+        job.setStatus("RUNNING");
+        job.setStartedAt(Instant.now());
+        return repository.save(job);
+    }
+
+    @Test
+    void sameOptionsSubmittedOnTwoNodesShareOneQueuedJob() {
+        StockBatchJobQueue.Ticket a = nodeA.submit(false, 4, 1, false, 0, "alice");
+        StockBatchJobQueue.Ticket b = nodeB.submit(false, 4, 1, false, 5, "bob");
+
+        assertEquals(a.taskId(), b.taskId());
+        assertTrue(b.attached());
+        assertEquals(1, repository.count());
+        StockBatchJobEntity job = repository.findByTaskId(a.taskId()).orElseThrow();
+        assertEquals(2, job.getRequesters());
+        assertEquals(5, job.getPriority());
+
+        // 다른 옵션 → 별도 작업
+        assertFalse(nodeB.submit(true, 4, 1, false, 0, "bob").attached());
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void queueKeyAllowsOneQueuedJobPerOptions() {
+        String key = StockBatchJobEntity.queueKey(false, 4, 1, false);
+        StockBatchJobEntity first = new StockBatchJobEntity("k1", false, 4, 1, false, 0, "alice");
+        first.setQueueKey(key);
+        repository.save(first);
+
+        // 다른 노드가 합침 확인 전에 같은 옵션을 등록 → DB 가 거부
+        StockBatchJobEntity dup = new StockBatchJobEntity("k2", false, 4, 1, false, 0, "bob");
+        dup.setQueueKey(key);
+        assertThrows(DataIntegrityViolationException.class, () -> repository.save(dup));
+
+        // 실행 시작 → 키 해제, 같은 옵션의 새 대기 작업 허용
+        assertEquals(1, repository.start(repository.findByTaskId("k1").orElseThrow().getId(), Instant.now()));
+        StockBatchJobEntity next = new StockBatchJobEntity("k3", false, 4, 1, false, 0, "bob");
+        next.setQueueKey(key);
+        repository.save(next);
+        assertNull(repository.findByTaskId("k1").orElseThrow().getQueueKey());
+    }
+
+    @Test
+    void cancelOnNonRunnerIsRecordedAndRunnerKills() {
+        running("t1");
+        ReflectionTestUtils.setField(nodeA, "currentTaskId", "t1");
+        statusA.setTaskStatus("t1", new TaskStatusService.TaskStatus("IN_PROGRESS", Map.of(), null));
+        statusB.setTaskStatus("t1", new TaskStatusService.TaskStatus("QUEUED", Map.of(), null));
+
+        // B 는 실행하지 않음 → 기록만, 로컬 최종 상태도 쓰지 않음
+        assertEquals("CANCEL_REQUESTED", nodeB.cancel("t1").orElseThrow());
+        verify(batchB, never()).cancelTask(anyString(), anyString());
+        assertEquals("QUEUED", statusB.getTaskStatus("t1").getStatus());
+        assertTrue(repository.findByTaskId("t1").orElseThrow().isCancelRequested());
+        assertEquals("RUNNING", repository.findByTaskId("t1").orElseThrow().getStatus());
+
+        // 실행 노드 A 가 확인 후 종료
+        nodeA.watchCancel();
+        verify(batchA).cancelTask("t1", "사용자 취소");
+    }
+
+    @Test
+    void cancelOfQueuedAndUnknownJobs() {
+        repository.save(new StockBatchJobEntity("q1", false, 4, 1, false, 0, "tester"));
+
+        assertEquals("CANCELLED", nodeB.cancel("q1").orElseThrow());
+        assertEquals("CANCELLED", repository.findByTaskId("q1").orElseThrow().getStatus());
+        assertEquals("CANCELLED", nodeB.cancel("q1").orElseThrow()); // 이미 끝남 → 그 상태
+        assertTrue(nodeB.cancel("missing").isEmpty());
+    }
+
+    @Test
+    void queuedStatusOfJobFinishedElsewhereIsSettled() {
+        StockBatchJobEntity job = running("t2");
+        statusB.setTaskStatus("t2", new TaskStatusService.TaskStatus("QUEUED", Map.of(), null));
+        statusB.setTaskStatus("gone", new TaskStatusService.TaskStatus("QUEUED", Map.of(), null));
+
+        // 아직 실행 중 → 그대로
+        nodeB.settleQueued();
+        verify(batchB, never()).settleFinished(anyString(), anyString(), any());
+
+        job.setStatus("CANCELLED");
+        job.setFinishedAt(Instant.now());
+        repository.save(job);
+        nodeB.settleQueued();
+
+        verify(batchB).settleFinished(eq("t2"), eq("CANCELLED"), any());
+        assertNull(statusB.getTaskStatus("gone")); // 작업 기록이 없음 → 제거
+    }
+}
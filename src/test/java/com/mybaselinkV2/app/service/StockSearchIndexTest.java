@@ -0,0 +1,42 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StockSearchIndexTest {
+
+    private final StockSearchIndex index = new StockSearchIndex(List.of(
+            row(1, "005930", "삼성전자", "KOSPI", ""),
+            row(2, "000660", "SK하이닉스", "KOSPI", ""),
+            row(3, "035720", "카카오", "KOSPI", "서비스업"),
+            row(4, "263750", "펄어비스", "KOSDAQ", ""),
+            row(5, "006400", "삼성SDI", "KOSPI", "전기전자")
+    ));
+
+    @Test
+    void substringOnAnyField() {
+        assertArrayEquals(new int[] {0, 4}, index.search("삼성"));
+        assertArrayEquals(new int[] {1}, index.search("sk"));
+        assertArrayEquals(new int[] {4}, index.search("SDI"));
+        assertArrayEquals(new int[] {0}, index.search("5930"));
+        assertArrayEquals(new int[] {3}, index.search("kosdaq"));
+        assertArrayEquals(new int[] {2}, index.search("서비스"));
+        assertArrayEquals(new int[] {}, index.search("없는종목"));
+    }
+
+    @Test
+    void chosungSearch() {
+        assertArrayEquals(new int[] {0}, index.search("ㅅㅅㅈㅈ"));
+        assertArrayEquals(new int[] {0, 4}, index.search("ㅅㅅ"));
+        assertArrayEquals(new int[] {0}, index.search("삼ㅅㅈ"));
+        assertArrayEquals(new int[] {2}, index.search("ㅋㅋㅇ"));
+        assertArrayEquals(new int[] {4}, index.search("ㅈㄱㅈㅈ"));
+    }
+
+    private static StockListing row(int id, String code, String name, String market, String dept) {
+        return new StockListing(id, code, name, market, dept, 0, 0, 0, 0, 0, "2025-10-27");
+    }
+}
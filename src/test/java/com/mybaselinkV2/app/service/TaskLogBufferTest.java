@@ -0,0 +1,58 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class TaskLogBufferTest {
+
+    @Test
+    void pollingWithCursorNeverSkipsConcurrentAppends() throws Exception {
+        int writers = 4, perWriter = 20_000;
+        TaskLogBuffer buf = new TaskLogBuffer(writers * perWriter);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            Thread t = new Thread(() -> {
+                try { start.await(); } catch (InterruptedException e) { return; }
+                for (int i = 0; i < perWriter; i++) buf.append("line");
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        // 상태 조회처럼 작은 max 로 쫓아가며 읽기
+        start.countDown();
+        long cursor = 0, expected = 1;
+        long total = (long) writers * perWriter;
+        while (expected <= total) {
+            List<TaskLogBuffer.LogLine> lines = buf.since(cursor, 50);
+            for (TaskLogBuffer.LogLine l : lines) {
+                assertEquals(expected++, l.seq());
+            }
+            cursor = buf.cursor(lines, cursor);
+            if (lines.isEmpty()) Thread.onSpinWait();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(total, cursor);
+    }
+
+    @Test
+    void cursorStaysAtAfterSeqWhenNothingReturned() {
+        TaskLogBuffer buf = new TaskLogBuffer(10);
+        assertEquals(0, buf.cursor(buf.since(0, 10), 0));
+        buf.append("a");
+        buf.append("b");
+        List<TaskLogBuffer.LogLine> one = buf.since(0, 1);
+        assertEquals(1, buf.cursor(one, 0));
+        assertTrue(buf.since(2, 10).isEmpty());
+        assertEquals(2, buf.cursor(List.of(), 2));
+        // 발급된 적 없는 seq (다른 실행의 cursor) → 현재 끝으로
+        assertEquals(2, buf.cursor(List.of(), 99));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mybaselinkV2.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TaskStatusServiceTest {
+
+    private static TaskStatusService.TaskStatus status(String s) {
+        return new TaskStatusService.TaskStatus(s, Map.of(), null);
+    }
+
+    @Test
+    void unfinishedTasksAreNeverEvictedBySize() {
+        TaskStatusService service = new TaskStatusService(60, 2);
+        List<String> removed = new ArrayList<>();
+        service.addRemovalListener(removed::add);
+
+        for (int i = 0; i < 50; i++) service.setTaskStatus("run-" + i, status(i % 2 == 0 ? "IN_PROGRESS" : "QUEUED"));
+        for (int i = 0; i < 20; i++) service.setTaskStatus("done-" + i, status("COMPLETED"));
+        service.getStats(); // cleanUp
+
+        for (int i = 0; i < 50; i++) assertNotNull(service.getTaskStatus("run-" + i), "run-" + i);
+        assertTrue(removed.stream().allMatch(id -> id.startsWith("done-")), removed.toString());
+        assertEquals(52, service.getAllTasks().size());
+    }
+
+    @Test
+    void taskBecomesEvictableOnceFinished() {
+        TaskStatusService service = new TaskStatusService(60, 1);
+        service.setTaskStatus("a", status("IN_PROGRESS"));
+        service.setTaskStatus("b", status("IN_PROGRESS"));
+        service.setTaskStatus("a", status("COMPLETED"));
+        service.setTaskStatus("b", status("FAILED"));
+        service.getStats();
+
+        assertEquals(1, service.getAllTasks().size());
+        assertEquals(1L, service.getStats().get("evicted"));
+    }
+}